@@ -0,0 +1,149 @@
+/*
+ * Latencia de las consultas de órdenes con y sin los índices compuestos
+ */
+package com.testCus.shoppingcart.repository;
+
+import com.testCus.shoppingcart.SpringbootShoppingCart;
+import com.testCus.shoppingcart.model.OrderDetail;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas de {@link OrderRepository} sobre H2 en memoria con 1.000.000 de órdenes
+ * (80% Completed, 20% Pending, 0,1% Cancelled), con los índices de {@code schema.sql}
+ * ({@code indexes=true}) y sin ellos. Las páginas empiezan en un ID al azar, por lo que
+ * una página profunda pesa igual que la primera en la medición.
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="OrderQueryBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class OrderQueryBenchmark {
+
+    // Cinco órdenes por cliente; la primera de cada cliente es su única orden Pending
+    private static final int ORDERS_PER_CUSTOMER = 5;
+    private static final int CANCELLED_EVERY = 1000;
+    private static final int PAGE_SIZE = 50;
+    private static final int INSERT_BATCH = 10_000;
+
+    @Param({"1000000"})
+    private int orders;
+
+    @Param({"true", "false"})
+    private boolean indexes;
+
+    private ConfigurableApplicationContext context;
+    private OrderRepository orderRepository;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Argumentos de línea de comandos: a diferencia de properties(), tienen prioridad sobre
+        // application.properties
+        context = new SpringApplicationBuilder(SpringbootShoppingCart.class)
+            .web(WebApplicationType.NONE)
+            .run(
+                // Sin caché de resultados de H2: el conteo y la primera orden repiten la misma consulta
+                "--spring.datasource.url=jdbc:h2:mem:orders-" + UUID.randomUUID() + ";DB_CLOSE_ON_EXIT=FALSE;QUERY_CACHE_SIZE=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--fakestore.stand-in.enabled=true",
+                "--fakestore.stand-in.port=0",
+                "--catalog.refresh.initial-delay-ms=3600000",
+                "--catalog.snapshot.enabled=false",
+                "--warmup.enabled=false");
+        orderRepository = context.getBean(OrderRepository.class);
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        if (!indexes) {
+            jdbc.execute("DROP INDEX idx_order_details_customer_status");
+            jdbc.execute("DROP INDEX idx_order_details_status_order");
+        }
+        insertOrders(jdbc);
+        jdbc.execute("ANALYZE");
+        random = new Random(42);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private void insertOrders(JdbcTemplate jdbc) {
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = 0; i < orders; i++) {
+            int customerId = i / ORDERS_PER_CUSTOMER + 1;
+            String status = i % ORDERS_PER_CUSTOMER == 0 ? "Pending"
+                : i % CANCELLED_EVERY == 1 ? "Cancelled" : "Completed";
+            batch.add(new Object[]{i + 1, customerId, "Cliente", "Prueba", "cliente" + customerId + "@example.com",
+                "5551234567", "Calle " + customerId, "Lima", "15001", 1 + i % 5, "Orden con " + (1 + i % 5) + " productos",
+                10.0 + i % 1000, status, "Completed".equals(status) ? "CARD" : null});
+            if (batch.size() == INSERT_BATCH) {
+                insertBatch(jdbc, batch);
+                batch.clear();
+            }
+        }
+        insertBatch(jdbc, batch);
+        jdbc.execute("ALTER SEQUENCE order_details_seq RESTART WITH " + (orders + 1));
+    }
+
+    private static void insertBatch(JdbcTemplate jdbc, List<Object[]> batch) {
+        jdbc.batchUpdate("INSERT INTO order_details (order_id, customer_id, first_name, last_name, email, phone, "
+            + "street, city, zip_code, product_count, product_summary, total, status, payment_method) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+    }
+
+    @Benchmark
+    public Optional<OrderDetail> pendingOrderOfCustomer() {
+        return orderRepository.findByCustomerIdAndStatus(random.nextInt(orders / ORDERS_PER_CUSTOMER) + 1, "Pending");
+    }
+
+    @Benchmark
+    public List<OrderDetail> pageOfPending() {
+        return orderRepository.findByStatusAndOrderIdGreaterThanOrderByStatusAscOrderIdAsc(
+            "Pending", random.nextInt(orders - PAGE_SIZE * ORDERS_PER_CUSTOMER), Limit.of(PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<OrderDetail> pageOfCancelled() {
+        return orderRepository.findByStatusAndOrderIdGreaterThanOrderByStatusAscOrderIdAsc(
+            "Cancelled", random.nextInt(orders - PAGE_SIZE * CANCELLED_EVERY), Limit.of(PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Optional<OrderDetail> firstPending() {
+        return orderRepository.findFirstByStatusOrderByStatusAscOrderIdAsc("Pending");
+    }
+
+    @Benchmark
+    public long countPending() {
+        return orderRepository.countByStatus("Pending");
+    }
+}
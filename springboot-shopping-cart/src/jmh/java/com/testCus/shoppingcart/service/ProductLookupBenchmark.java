@@ -0,0 +1,151 @@
+/*
+ * Búsqueda de un producto por ID: índice primitivo contra el caché de Spring
+ */
+package com.testCus.shoppingcart.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testCus.shoppingcart.catalog.CatalogSnapshot;
+import com.testCus.shoppingcart.catalog.CatalogSnapshotStore;
+import com.testCus.shoppingcart.catalog.ProductCatalog;
+import com.testCus.shoppingcart.config.CacheConfig;
+import com.testCus.shoppingcart.config.ProductCacheKeyGenerator;
+import com.testCus.shoppingcart.dto.ProductDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compara {@code GET /api/products/{id}} y la lectura de precio por los dos caminos:
+ * <ul>
+ *   <li>caché: {@link ProductService#getProductDetails(Integer)} a través del proxy
+ *   {@code @Cacheable} real (Caffeine, generador de claves, Integer y {@code List.of})</li>
+ *   <li>índice: {@link CatalogSnapshot#findById(int)} y {@link CatalogSnapshot#priceOf(int)}
+ *   sobre el mapa primitivo por ID, leídos de {@link ProductCatalog} como lo hace el
+ *   controlador, sin el proxy CGLIB de ProductService</li>
+ * </ul>
+ * Con {@code -prof gc} se ve la asignación por operación (B/op).
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="ProductLookupBenchmark -f 1 -prof gc"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductLookupBenchmark {
+
+    // IDs mayores a 127 para que Integer.valueOf no use su caché de instancias
+    private static final int FIRST_ID = 1000;
+
+    @Param({"1000"})
+    private int products;
+
+    private AnnotationConfigApplicationContext context;
+    private ProductService productService;
+    private ProductCatalog productCatalog;
+    private int[] ids;
+    private int next;
+
+    @Configuration
+    @EnableCaching
+    @Import({CacheConfig.class, ProductCacheKeyGenerator.class, ProductCatalog.class, ProductService.class,
+        ProductResponseCache.class})
+    static class CachePath {
+        static List<ProductDTO> catalog;
+
+        @Bean
+        FakeStoreClient fakeStoreClient() {
+            FakeStoreClient fakeStoreClient = mock(FakeStoreClient.class);
+            when(fakeStoreClient.fetchAllProducts()).thenReturn(catalog);
+            return fakeStoreClient;
+        }
+
+        @Bean
+        CatalogSnapshotStore catalogSnapshotStore() {
+            return new CatalogSnapshotStore(false, "unused");
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        ids = new int[products];
+        List<ProductDTO> catalog = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            ids[i] = FIRST_ID + i * 7;
+            catalog.add(new ProductDTO(ids[i], "Producto " + ids[i], 10.0 + i, "Descripción " + i,
+                i % 2 == 0 ? "electronics" : "jewelery", null, null));
+        }
+        CachePath.catalog = catalog;
+        context = new AnnotationConfigApplicationContext();
+        // Conversión de Boot para los @Value de tipo Duration ("15m", "60s")
+        context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+        context.register(CachePath.class);
+        context.refresh();
+        productService = context.getBean(ProductService.class);
+        productCatalog = context.getBean(ProductCatalog.class);
+        // Carga el catálogo y llena el caché para medir solo aciertos
+        for (int id : ids) {
+            productService.getProductDetails(id);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private int nextId() {
+        int id = ids[next];
+        next = next + 1 == ids.length ? 0 : next + 1;
+        return id;
+    }
+
+    @Benchmark
+    public ProductDTO productFromCache() {
+        return productService.getProductDetails(nextId()).get(0);
+    }
+
+    @Benchmark
+    public ProductDTO productFromIndex() {
+        return productCatalog.snapshot().findById(nextId());
+    }
+
+    @Benchmark
+    public double priceFromCache() {
+        return productService.getProductDetails(nextId()).get(0).getPrice();
+    }
+
+    @Benchmark
+    public double priceFromIndex() {
+        return productCatalog.snapshot().priceOf(nextId());
+    }
+}
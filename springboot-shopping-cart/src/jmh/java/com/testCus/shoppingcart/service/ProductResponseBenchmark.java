@@ -0,0 +1,143 @@
+/*
+ * Respuestas del catálogo: bytes ya codificados contra serializar con Jackson en cada petición
+ */
+package com.testCus.shoppingcart.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testCus.shoppingcart.catalog.CatalogSnapshotStore;
+import com.testCus.shoppingcart.catalog.ProductCatalog;
+import com.testCus.shoppingcart.dto.ProductDTO;
+import com.testCus.shoppingcart.dto.Rating;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@code GET /api/products} sin la capa HTTP: lo que se escribe en el cuerpo de la respuesta
+ * por petición, en JSON plano y con gzip.
+ * <ul>
+ *   <li>jackson: el convertidor de mensajes serializa la lista con Jackson en cada petición
+ *   (y la comprime, si el servidor comprime)</li>
+ *   <li>cached: {@link ProductResponseCache} entrega los bytes codificados una vez por snapshot</li>
+ * </ul>
+ * Con {@code -prof gc} se ve la asignación por operación (B/op).
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="ProductResponseBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductResponseBenchmark {
+
+    // 20: tamaño del catálogo de FakeStore; 1000: catálogo de una tienda mediana
+    @Param({"20", "1000"})
+    private int products;
+
+    private ObjectMapper objectMapper;
+    private ProductService productService;
+    private ProductResponseCache responseCache;
+    private CountingOutputStream body;
+
+    /**
+     * Cuerpo de la respuesta: solo cuenta los bytes para que el JIT no descarte la escritura.
+     * Cerrarlo no tiene efecto, igual que Jackson al terminar de escribir en la respuesta.
+     */
+    static final class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        FakeStoreClient fakeStoreClient = mock(FakeStoreClient.class);
+        when(fakeStoreClient.fetchAllProducts()).thenReturn(catalog(products));
+        ProductCatalog productCatalog = new ProductCatalog(fakeStoreClient, mock(ApplicationEventPublisher.class),
+            new CatalogSnapshotStore(false, "unused"), Duration.ofHours(1));
+        objectMapper = new ObjectMapper();
+        responseCache = new ProductResponseCache(objectMapper, productCatalog, true, 1000);
+        productService = new ProductService(productCatalog, fakeStoreClient,
+            new ConcurrentMapCacheManager(), responseCache,
+            100, 8, 100, Duration.ofSeconds(60), 10000, false);
+        body = new CountingOutputStream();
+        // Descarga el catálogo y codifica la vista fuera de la medición
+        cachedJson();
+    }
+
+    @Benchmark
+    public long jacksonJson() throws IOException {
+        objectMapper.writeValue(body, productService.loadProductDetails(null));
+        return body.count;
+    }
+
+    @Benchmark
+    public long jacksonGzip() throws IOException {
+        try (GZIPOutputStream gzip = new GZIPOutputStream(body)) {
+            objectMapper.writeValue(gzip, productService.loadProductDetails(null));
+        }
+        return body.count;
+    }
+
+    @Benchmark
+    public long cachedJson() {
+        byte[] bytes = responseCache.get(ProductResponseCache.PRODUCTS_VIEW_PREFIX + 0,
+            () -> productService.loadProductDetails(null)).toResponse(false).getBody();
+        body.write(bytes, 0, bytes.length);
+        return body.count;
+    }
+
+    @Benchmark
+    public long cachedGzip() {
+        byte[] bytes = responseCache.get(ProductResponseCache.PRODUCTS_VIEW_PREFIX + 0,
+            () -> productService.loadProductDetails(null)).toResponse(true).getBody();
+        body.write(bytes, 0, bytes.length);
+        return body.count;
+    }
+
+    private static List<ProductDTO> catalog(int size) {
+        List<ProductDTO> catalog = new ArrayList<>(size);
+        for (int id = 1; id <= size; id++) {
+            Rating rating = new Rating();
+            rating.setRate((id % 50) / 10.0);
+            rating.setCount(id * 7 % 1000);
+            catalog.add(new ProductDTO(id, "Producto de prueba " + id, 10.0 + id,
+                "Descripción del producto " + id + " con un texto de longitud similar a la de FakeStore, "
+                    + "que suele incluir materiales, medidas y recomendaciones de uso.",
+                id % 2 == 0 ? "electronics" : "jewelery", "https://fakestoreapi.com/img/" + id + ".jpg", rating));
+        }
+        return catalog;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Latencia de la búsqueda de productos sobre un catálogo grande
+ */
+package com.testCus.shoppingcart.service;
+
+import com.testCus.shoppingcart.catalog.CatalogSnapshotStore;
+import com.testCus.shoppingcart.catalog.ProductCatalog;
+import com.testCus.shoppingcart.dto.ProductDTO;
+import com.testCus.shoppingcart.dto.ProductSearchResponse;
+import com.testCus.shoppingcart.dto.Rating;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@code GET /api/products/search} sin la capa HTTP: tokenización, intersección de listas,
+ * facetas y ordenamiento por relevancia. El modo SampleTime reporta percentiles (p0.99).
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="ProductSearchBenchmark -f 1"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    private static final String[] NOUNS = {"camiseta", "camara", "campera", "pantalon", "mochila", "reloj",
+        "auriculares", "monitor", "anillo", "collar", "zapatilla", "lampara", "taza", "libro", "teclado",
+        "mouse", "bolso", "gorra", "bufanda", "parlante"};
+    private static final String[] ADJECTIVES = {"clásico", "deportivo", "inalámbrico", "compacto", "elegante",
+        "resistente", "liviano", "premium", "básico", "vintage"};
+    private static final String[] MATERIALS = {"algodón", "cuero", "acero", "plata", "poliéster", "madera",
+        "aluminio", "lana", "vidrio", "plástico"};
+    private static final List<String> CATEGORIES = List.of("electronics", "jewelery", "men's clothing",
+        "women's clothing", "home", "books");
+
+    @Param({"100000"})
+    private int products;
+
+    // Término frecuente, conjunción, prefijo de varios términos y un término presente en todo el catálogo
+    @Param({"camiseta", "camiseta algodon", "cam", "articulo"})
+    private String query;
+
+    private ProductSearchService productSearchService;
+
+    @Setup
+    public void setUp() {
+        FakeStoreClient fakeStoreClient = mock(FakeStoreClient.class);
+        when(fakeStoreClient.fetchAllProducts()).thenReturn(catalog(products));
+        ProductCatalog productCatalog = new ProductCatalog(fakeStoreClient, mock(ApplicationEventPublisher.class),
+            new CatalogSnapshotStore(false, "unused"), Duration.ofHours(1));
+        productSearchService = new ProductSearchService(productCatalog, 100);
+        // Descarga el catálogo y construye el índice fuera de la medición
+        productSearchService.search(query, null, null, null, null, 20);
+    }
+
+    @Benchmark
+    public ProductSearchResponse search() {
+        return productSearchService.search(query, null, null, null, null, 20);
+    }
+
+    @Benchmark
+    public ProductSearchResponse searchWithFilters() {
+        return productSearchService.search(query, "electronics", 10.0, 500.0, 3.0, 20);
+    }
+
+    private static List<ProductDTO> catalog(int size) {
+        Random random = new Random(42);
+        List<ProductDTO> catalog = new ArrayList<>(size);
+        for (int id = 1; id <= size; id++) {
+            String noun = NOUNS[random.nextInt(NOUNS.length)];
+            String adjective = ADJECTIVES[random.nextInt(ADJECTIVES.length)];
+            String material = MATERIALS[random.nextInt(MATERIALS.length)];
+            Rating rating = new Rating();
+            rating.setRate(Math.round(random.nextDouble() * 50) / 10.0);
+            rating.setCount(random.nextInt(1000));
+            catalog.add(new ProductDTO(id,
+                String.format("%s %s de %s %d", noun, adjective, material, id),
+                Math.round((1 + random.nextDouble() * 999) * 100) / 100.0,
+                String.format("Artículo %s de %s, modelo sku%06d", adjective, material, id),
+                CATEGORIES.get(id % CATEGORIES.size()), null, rating));
+        }
+        return catalog;
+    }
+}
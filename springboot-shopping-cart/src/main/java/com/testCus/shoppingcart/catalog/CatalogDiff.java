@@ -0,0 +1,199 @@
+/*
+ * Diferencias entre el catálogo vigente y una nueva lista de productos
+ */
+package com.testCus.shoppingcart.catalog;
+
+import com.testCus.shoppingcart.dto.ProductDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Compara producto por producto la lista descargada contra el snapshot vigente usando
+ * la huella de cada registro. Los productos sin cambios conservan la instancia del
+ * snapshot anterior, de modo que las vistas derivadas solo se recalculan para los
+ * productos agregados, eliminados o modificados.
+ */
+public final class CatalogDiff {
+
+    private final List<ProductDTO> products;
+    private final long[] hashes;
+    private final long fingerprint;
+    private final int[] previousPositions;
+    private final int[] changedPositions;
+    private final int added;
+    private final int changed;
+    private final int removed;
+    private final boolean sameLayout;
+    private final Set<Integer> changedIds;
+    private final Set<String> changedCategories;
+
+    private CatalogDiff(List<ProductDTO> products, long[] hashes, int[] previousPositions, int[] changedPositions,
+                        int added, int changed, int removed, boolean sameLayout,
+                        Set<Integer> changedIds, Set<String> changedCategories) {
+        this.products = products;
+        this.hashes = hashes;
+        this.fingerprint = ProductFingerprint.combine(hashes);
+        this.previousPositions = previousPositions;
+        this.changedPositions = changedPositions;
+        this.added = added;
+        this.changed = changed;
+        this.removed = removed;
+        this.sameLayout = sameLayout;
+        this.changedIds = changedIds;
+        this.changedCategories = changedCategories;
+    }
+
+    /**
+     * @param previous Snapshot vigente (puede ser {@link CatalogSnapshot#EMPTY})
+     * @param fetched Productos en el orden en que los publica FakeStore
+     */
+    public static CatalogDiff compute(CatalogSnapshot previous, List<ProductDTO> fetched) {
+        int size = fetched.size();
+        ProductIdIndex previousIndex = previous.getIdIndex();
+        int previousSize = previous.getProducts().size();
+        boolean[] seen = new boolean[previousSize];
+        List<ProductDTO> products = new ArrayList<>(size);
+        long[] hashes = new long[size];
+        int[] previousPositions = new int[size];
+        int[] changedPositions = new int[size];
+        int changedCount = 0;
+        int added = 0;
+        int changed = 0;
+        boolean sameLayout = size == previousSize;
+        Set<Integer> changedIds = new TreeSet<>();
+        Set<String> changedCategories = new TreeSet<>();
+
+        for (int position = 0; position < size; position++) {
+            ProductDTO product = fetched.get(position);
+            long hash = ProductFingerprint.of(product);
+            int previousPosition = previousIndex.positionOf(product.getId());
+            if (previousPosition >= 0 && seen[previousPosition]) {
+                previousPosition = -1; // ID repetido en la descarga: se trata como producto nuevo
+            }
+            hashes[position] = hash;
+            previousPositions[position] = previousPosition;
+            sameLayout &= previousPosition == position;
+
+            if (previousPosition < 0) {
+                added++;
+                products.add(product);
+                changedPositions[changedCount++] = position;
+                recordChange(product, changedIds, changedCategories);
+                continue;
+            }
+            seen[previousPosition] = true;
+            if (previous.hashAt(previousPosition) == hash) {
+                products.add(previous.getProducts().get(previousPosition));
+            } else {
+                changed++;
+                products.add(product);
+                changedPositions[changedCount++] = position;
+                recordChange(previous.getProducts().get(previousPosition), changedIds, changedCategories);
+                recordChange(product, changedIds, changedCategories);
+            }
+        }
+
+        int removed = 0;
+        for (int previousPosition = 0; previousPosition < previousSize; previousPosition++) {
+            if (!seen[previousPosition]) {
+                removed++;
+                recordChange(previous.getProducts().get(previousPosition), changedIds, changedCategories);
+            }
+        }
+
+        return new CatalogDiff(Collections.unmodifiableList(products), hashes, previousPositions,
+            Arrays.copyOf(changedPositions, changedCount), added, changed, removed, sameLayout,
+            Collections.unmodifiableSet(changedIds), Collections.unmodifiableSet(changedCategories));
+    }
+
+    private static void recordChange(ProductDTO product, Set<Integer> changedIds, Set<String> changedCategories) {
+        changedIds.add(product.getId());
+        if (product.getCategory() != null) {
+            changedCategories.add(CatalogSnapshot.categoryKey(product.getCategory()));
+        }
+    }
+
+    /**
+     * @return true si la lista descargada es idéntica al snapshot vigente, incluido el orden
+     */
+    public boolean isEmpty() {
+        return sameLayout && changedPositions.length == 0;
+    }
+
+    /**
+     * @return productos de la nueva versión; los que no cambiaron son las instancias anteriores
+     */
+    public List<ProductDTO> getProducts() {
+        return products;
+    }
+
+    /**
+     * @return huella de cada producto por posición
+     */
+    long[] getHashes() {
+        return hashes;
+    }
+
+    /**
+     * @return huella de la lista completa, igual a {@link ProductFingerprint#of(List)}
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return posición de cada producto en el snapshot anterior, o -1 si es nuevo
+     */
+    int[] getPreviousPositions() {
+        return previousPositions;
+    }
+
+    /**
+     * @return posiciones (en la nueva lista, ascendentes) de los productos agregados o modificados
+     */
+    int[] getChangedPositions() {
+        return changedPositions;
+    }
+
+    /**
+     * @return true si cada producto conserva su posición: no hubo altas, bajas ni cambios de orden
+     */
+    public boolean isSameLayout() {
+        return sameLayout;
+    }
+
+    public int getAdded() {
+        return added;
+    }
+
+    public int getChanged() {
+        return changed;
+    }
+
+    public int getRemoved() {
+        return removed;
+    }
+
+    public int getUnchanged() {
+        return products.size() - added - changed;
+    }
+
+    /**
+     * @return IDs agregados, eliminados o modificados
+     */
+    public Set<Integer> getChangedIds() {
+        return changedIds;
+    }
+
+    /**
+     * @return categorías (en minúsculas) con algún producto agregado, eliminado o modificado
+     */
+    public Set<String> getChangedCategories() {
+        return changedCategories;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Evento publicado cuando se reemplaza el snapshot del catálogo
+ */
+package com.testCus.shoppingcart.catalog;
+
+import java.util.Set;
+
+/**
+ * Notifica que un nuevo snapshot del catálogo ha sido publicado.
+ * Si el cambio es parcial indica qué productos y categorías cambiaron, para que
+ * los cachés descarten solo esas vistas y conserven el resto.
+ */
+public class CatalogRefreshedEvent {
+
+    private final CatalogSnapshot previous;
+    private final CatalogSnapshot current;
+    private final Set<Integer> changedProductIds;
+    private final Set<String> changedCategories;
+
+    /**
+     * Cambio completo: todas las vistas derivadas del snapshot anterior quedan obsoletas
+     */
+    public CatalogRefreshedEvent(CatalogSnapshot previous, CatalogSnapshot current) {
+        this(previous, current, null, null);
+    }
+
+    /**
+     * Cambio parcial
+     * @param changedProductIds IDs agregados, eliminados o modificados
+     * @param changedCategories Categorías afectadas, en minúsculas
+     */
+    public CatalogRefreshedEvent(CatalogSnapshot previous, CatalogSnapshot current,
+                                 Set<Integer> changedProductIds, Set<String> changedCategories) {
+        this.previous = previous;
+        this.current = current;
+        this.changedProductIds = changedProductIds;
+        this.changedCategories = changedCategories;
+    }
+
+    public CatalogSnapshot getPrevious() {
+        return previous;
+    }
+
+    public CatalogSnapshot getCurrent() {
+        return current;
+    }
+
+    /**
+     * @return true si el evento indica exactamente qué productos y categorías cambiaron
+     */
+    public boolean isPartial() {
+        return changedProductIds != null && changedCategories != null;
+    }
+
+    /**
+     * @return IDs cambiados o null si el cambio es completo
+     */
+    public Set<Integer> getChangedProductIds() {
+        return changedProductIds;
+    }
+
+    /**
+     * @return categorías cambiadas (en minúsculas) o null si el cambio es completo
+     */
+    public Set<String> getChangedCategories() {
+        return changedCategories;
+    }
+
+    /**
+     * @return true si la lista de categorías del nuevo snapshot es distinta a la anterior
+     */
+    public boolean categoriesChanged() {
+        return !previous.getCategories().equals(current.getCategories());
+    }
+}
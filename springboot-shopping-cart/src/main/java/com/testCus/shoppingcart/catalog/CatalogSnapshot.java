@@ -0,0 +1,452 @@
+/*
+ * Vista inmutable del catálogo de productos
+ */
+package com.testCus.shoppingcart.catalog;
+
+import com.testCus.shoppingcart.dto.ProductDTO;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+/**
+ * Copia inmutable del catálogo completo con sus índices precalculados.
+ * Una vez publicada nunca se modifica: los refrescos crean una instancia nueva,
+ * que comparte con la anterior todo lo que no cambió.
+ */
+public final class CatalogSnapshot {
+
+    public static final CatalogSnapshot EMPTY = of(0, ProductFingerprint.combine(new long[0]), List.of());
+
+    private final long version;
+    private final long fingerprint;
+    private final Instant loadedAt;
+    private final List<ProductDTO> products;
+    private final ProductIdIndex productsById;
+    private final Map<String, List<ProductDTO>> productsByCategory;
+    private final List<String> categories;
+    private final long[] productHashes;
+    private final Map<String, String> categoryETags;
+    private final Map<ProductSort, int[]> sortedPositions;
+    private final long parentVersion;
+    private final int[] changedPositions;
+
+    private CatalogSnapshot(long version, long fingerprint, Instant loadedAt, List<ProductDTO> products,
+                            ProductIdIndex productsById,
+                            Map<String, List<ProductDTO>> productsByCategory,
+                            List<String> categories,
+                            long[] productHashes,
+                            Map<String, String> categoryETags,
+                            Map<ProductSort, int[]> sortedPositions,
+                            long parentVersion,
+                            int[] changedPositions) {
+        this.version = version;
+        this.fingerprint = fingerprint;
+        this.loadedAt = loadedAt;
+        this.products = products;
+        this.productsById = productsById;
+        this.productsByCategory = productsByCategory;
+        this.categories = categories;
+        this.productHashes = productHashes;
+        this.categoryETags = categoryETags;
+        this.sortedPositions = sortedPositions;
+        this.parentVersion = parentVersion;
+        this.changedPositions = changedPositions;
+    }
+
+    /**
+     * Construye un snapshot y todos sus índices a partir de la lista descargada
+     * @param fingerprint Huella de contenido calculada con {@link ProductFingerprint}
+     */
+    public static CatalogSnapshot of(long version, long fingerprint, List<ProductDTO> source) {
+        List<ProductDTO> products = List.copyOf(source);
+        Map<String, List<ProductDTO>> byCategory = new HashMap<>();
+        TreeSet<String> categories = new TreeSet<>();
+        long[] productHashes = new long[products.size()];
+        Map<String, String> categoryETags = new HashMap<>();
+
+        for (int position = 0; position < products.size(); position++) {
+            ProductDTO product = products.get(position);
+            productHashes[position] = ProductFingerprint.of(product);
+            String category = product.getCategory();
+            if (category != null) {
+                byCategory.computeIfAbsent(categoryKey(category), k -> new ArrayList<>()).add(product);
+                categories.add(category);
+            }
+        }
+        byCategory.replaceAll((k, list) -> Collections.unmodifiableList(list));
+        byCategory.forEach((k, list) -> categoryETags.put(k, eTag(ProductFingerprint.of(list))));
+
+        List<String> sortedCategories = List.copyOf(categories);
+        return new CatalogSnapshot(version, fingerprint, Instant.now(), products,
+            ProductIdIndex.build(products, sortedCategories),
+            Collections.unmodifiableMap(byCategory),
+            sortedCategories,
+            productHashes,
+            Collections.unmodifiableMap(categoryETags),
+            sortedPositions(products),
+            -1,
+            null);
+    }
+
+    /**
+     * Construye la siguiente versión aplicando solo las diferencias sobre el snapshot anterior:
+     * las categorías sin cambios, sus ETags y las instancias de productos se comparten, y los
+     * índices por ID y de orden se corrigen en las posiciones cambiadas en lugar de recalcularse.
+     * @param diff Diferencias calculadas con {@link CatalogDiff#compute} contra {@code previous}
+     */
+    public static CatalogSnapshot apply(CatalogSnapshot previous, long version, CatalogDiff diff) {
+        if (previous.isEmpty()) {
+            return of(version, diff.getFingerprint(), diff.getProducts());
+        }
+        List<ProductDTO> products = diff.getProducts();
+        int[] newPositions = newPositions(previous.products.size(), diff.getPreviousPositions());
+
+        Map<String, List<ProductDTO>> byCategory = new HashMap<>(previous.productsByCategory);
+        Map<String, String> categoryETags = new HashMap<>(previous.categoryETags);
+        TreeSet<String> categoryNames = null;
+        for (String key : diff.getChangedCategories()) {
+            List<ProductDTO> list = rebuildCategory(key, previous, diff, newPositions);
+            if (list.isEmpty()) {
+                byCategory.remove(key);
+                categoryETags.remove(key);
+            } else {
+                byCategory.put(key, list);
+                categoryETags.put(key, eTag(ProductFingerprint.of(list)));
+            }
+
+            // La lista de categorías guarda el nombre tal como llega, con sus variantes de mayúsculas
+            TreeSet<String> previousNames = new TreeSet<>();
+            for (String name : previous.categories) {
+                if (categoryKey(name).equals(key)) {
+                    previousNames.add(name);
+                }
+            }
+            TreeSet<String> names = new TreeSet<>();
+            for (ProductDTO product : list) {
+                names.add(product.getCategory());
+            }
+            if (!names.equals(previousNames)) {
+                if (categoryNames == null) {
+                    categoryNames = new TreeSet<>(previous.categories);
+                }
+                categoryNames.removeAll(previousNames);
+                categoryNames.addAll(names);
+            }
+        }
+        List<String> categories = categoryNames == null ? previous.categories : List.copyOf(categoryNames);
+
+        boolean patchable = diff.isSameLayout() && categories.equals(previous.categories);
+        ProductIdIndex productsById = patchable
+            ? previous.productsById.patch(products, diff.getChangedPositions(), categories)
+            : ProductIdIndex.build(products, categories);
+
+        Map<ProductSort, int[]> sorted = new EnumMap<>(ProductSort.class);
+        for (ProductSort sort : ProductSort.values()) {
+            int[] previousOrder = previous.sortedPositions.get(sort);
+            sorted.put(sort, sort == ProductSort.ID && diff.isSameLayout()
+                ? previousOrder
+                : mergeSorted(sort, products, previousOrder, newPositions, diff.getChangedPositions()));
+        }
+
+        return new CatalogSnapshot(version, diff.getFingerprint(), Instant.now(), products, productsById,
+            Collections.unmodifiableMap(byCategory),
+            categories,
+            diff.getHashes(),
+            Collections.unmodifiableMap(categoryETags),
+            Collections.unmodifiableMap(sorted),
+            patchable ? previous.version : -1,
+            patchable ? diff.getChangedPositions() : null);
+    }
+
+    /**
+     * @return para cada posición del snapshot anterior, su posición en la nueva lista o -1 si se eliminó
+     */
+    private static int[] newPositions(int previousSize, int[] previousPositions) {
+        int[] newPositions = new int[previousSize];
+        Arrays.fill(newPositions, -1);
+        for (int position = 0; position < previousPositions.length; position++) {
+            if (previousPositions[position] >= 0) {
+                newPositions[previousPositions[position]] = position;
+            }
+        }
+        return newPositions;
+    }
+
+    /**
+     * Lista de la categoría en la nueva versión: los productos anteriores que siguen sin cambios
+     * más los agregados o modificados, en el orden del catálogo. Solo recorre esa categoría.
+     */
+    private static List<ProductDTO> rebuildCategory(String key, CatalogSnapshot previous, CatalogDiff diff,
+                                                    int[] newPositions) {
+        List<ProductDTO> products = diff.getProducts();
+        List<Integer> positions = new ArrayList<>();
+        for (ProductDTO product : previous.findByCategory(key)) {
+            int position = newPositions[previous.productsById.positionOf(product.getId())];
+            if (position >= 0 && products.get(position) == product) {
+                positions.add(position);
+            }
+        }
+        for (int position : diff.getChangedPositions()) {
+            ProductDTO product = products.get(position);
+            if (product.getCategory() != null && categoryKey(product.getCategory()).equals(key)) {
+                positions.add(position);
+            }
+        }
+        positions.sort(null);
+        List<ProductDTO> list = new ArrayList<>(positions.size());
+        for (int position : positions) {
+            list.add(products.get(position));
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Orden de la nueva versión: los productos sin cambios conservan su orden relativo anterior
+     * y los agregados o modificados se insertan con búsqueda binaria
+     */
+    private static int[] mergeSorted(ProductSort sort, List<ProductDTO> products, int[] previousOrder,
+                                     int[] newPositions, int[] changedPositions) {
+        boolean[] changed = new boolean[products.size()];
+        for (int position : changedPositions) {
+            changed[position] = true;
+        }
+        int[] kept = new int[products.size() - changedPositions.length];
+        int keptSize = 0;
+        for (int previousPosition : previousOrder) {
+            int position = newPositions[previousPosition];
+            if (position >= 0 && !changed[position]) {
+                kept[keptSize++] = position;
+            }
+        }
+
+        Integer[] inserted = new Integer[changedPositions.length];
+        for (int i = 0; i < inserted.length; i++) {
+            inserted[i] = changedPositions[i];
+        }
+        Arrays.sort(inserted, (a, b) -> sort.compare(products.get(a), products.get(b)));
+
+        int[] merged = new int[products.size()];
+        int from = 0;
+        int size = 0;
+        for (int position : inserted) {
+            int at = insertionPoint(sort, products, kept, from, keptSize, products.get(position));
+            System.arraycopy(kept, from, merged, size, at - from);
+            size += at - from;
+            merged[size++] = position;
+            from = at;
+        }
+        System.arraycopy(kept, from, merged, size, keptSize - from);
+        return merged;
+    }
+
+    private static int insertionPoint(ProductSort sort, List<ProductDTO> products, int[] kept, int low, int high,
+                                      ProductDTO product) {
+        String value = sort.valueOf(product);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sort.compare(products.get(kept[mid]), value, product.getId()) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Precalcula, para cada criterio de orden, las posiciones de los productos ordenadas de forma ascendente
+     */
+    private static Map<ProductSort, int[]> sortedPositions(List<ProductDTO> products) {
+        Map<ProductSort, int[]> sorted = new EnumMap<>(ProductSort.class);
+        for (ProductSort sort : ProductSort.values()) {
+            String[] keys = new String[products.size()];
+            double[] numbers = new double[products.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = sort.valueOf(products.get(i));
+                numbers[i] = sort == ProductSort.PRICE || sort == ProductSort.RATING ? Double.parseDouble(keys[i]) : 0;
+            }
+            Comparator<Integer> order = switch (sort) {
+                case ID -> Comparator.comparingInt(i -> products.get(i).getId());
+                case TITLE -> Comparator.<Integer, String>comparing(i -> keys[i])
+                    .thenComparingInt(i -> products.get(i).getId());
+                case PRICE, RATING -> Comparator.<Integer>comparingDouble(i -> numbers[i])
+                    .thenComparingInt(i -> products.get(i).getId());
+            };
+            sorted.put(sort, IntStream.range(0, products.size()).boxed().sorted(order).mapToInt(Integer::intValue).toArray());
+        }
+        return Collections.unmodifiableMap(sorted);
+    }
+
+    /**
+     * ETag fuerte a partir de una huella de contenido
+     */
+    static String eTag(long fingerprint) {
+        return "\"" + Long.toHexString(fingerprint) + "\"";
+    }
+
+    /**
+     * Normaliza la categoría para búsquedas sin distinguir mayúsculas
+     */
+    static String categoryKey(String category) {
+        return category.toLowerCase(Locale.ROOT);
+    }
+
+    public boolean isEmpty() {
+        return products.isEmpty();
+    }
+
+    /**
+     * @return el producto con el ID indicado o null si no está en el snapshot
+     */
+    public ProductDTO findById(int id) {
+        return productsById.get(id);
+    }
+
+    /**
+     * @return precio del producto o {@link Double#NaN} si no está en el snapshot
+     */
+    public double priceOf(int id) {
+        return productsById.priceOf(id);
+    }
+
+    /**
+     * @return índice primitivo por ID del snapshot
+     */
+    public ProductIdIndex getIdIndex() {
+        return productsById;
+    }
+
+    /**
+     * @return productos de la categoría (sin distinguir mayúsculas), lista vacía si no existe
+     */
+    public List<ProductDTO> findByCategory(String category) {
+        if (category == null) {
+            return List.of();
+        }
+        return productsByCategory.getOrDefault(categoryKey(category), List.of());
+    }
+
+    /**
+     * @return ETag del catálogo completo (también válido para la lista de categorías)
+     */
+    public String getETag() {
+        return eTag(fingerprint);
+    }
+
+    /**
+     * @return ETag del producto o null si no está en el snapshot
+     */
+    public String getProductETag(int id) {
+        int position = productsById.positionOf(id);
+        return position < 0 ? null : eTag(productHashes[position]);
+    }
+
+    /**
+     * @return huella del producto en la posición indicada
+     */
+    long hashAt(int position) {
+        return productHashes[position];
+    }
+
+    /**
+     * @return ETag de los productos de la categoría o null si la categoría no existe
+     */
+    public String getCategoryETag(String category) {
+        return category == null ? null : categoryETags.get(categoryKey(category));
+    }
+
+    /**
+     * Página del catálogo ordenado, sin recorrer las páginas anteriores: la posición
+     * de inicio se ubica con búsqueda binaria sobre el arreglo ya ordenado.
+     * @param after Último producto de la página anterior (null para la primera página)
+     * @param limit Máximo de productos a retornar
+     */
+    public List<ProductDTO> page(ProductSort sort, boolean descending, ProductCursor after, int limit) {
+        int[] positions = sortedPositions.get(sort);
+        int start;
+        if (after == null) {
+            start = descending ? positions.length - 1 : 0;
+        } else {
+            // Primera posición estrictamente después del cursor (ascendente) o la anterior a él (descendente)
+            start = descending
+                ? firstIndex(positions, sort, after, true) - 1
+                : firstIndex(positions, sort, after, false);
+        }
+
+        List<ProductDTO> page = new ArrayList<>(Math.min(limit, positions.length));
+        int step = descending ? -1 : 1;
+        for (int i = start; i >= 0 && i < positions.length && page.size() < limit; i += step) {
+            page.add(products.get(positions[i]));
+        }
+        return page;
+    }
+
+    /**
+     * @param inclusive true para la primera posición mayor o igual al cursor, false para la primera mayor
+     */
+    private int firstIndex(int[] positions, ProductSort sort, ProductCursor cursor, boolean inclusive) {
+        int low = 0;
+        int high = positions.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int comparison = sort.compare(products.get(positions[mid]), cursor.getValue(), cursor.getId());
+            if (comparison > 0 || (inclusive && comparison == 0)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return versión de la que se derivó este snapshot conservando las posiciones
+     *         de todos los productos, o -1 si se construyó completo
+     */
+    public long getParentVersion() {
+        return parentVersion;
+    }
+
+    /**
+     * @return posiciones modificadas respecto a {@link #getParentVersion()}, o null si se construyó completo
+     */
+    public int[] getChangedPositions() {
+        return changedPositions == null ? null : changedPositions.clone();
+    }
+
+    /**
+     * @return huella del contenido; dos snapshots con la misma huella tienen los mismos productos
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    public List<ProductDTO> getProducts() {
+        return products;
+    }
+
+    /**
+     * @return categorías únicas ordenadas alfabéticamente
+     */
+    public List<String> getCategories() {
+        return categories;
+    }
+}
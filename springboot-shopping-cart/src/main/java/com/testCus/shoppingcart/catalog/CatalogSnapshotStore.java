@@ -0,0 +1,264 @@
+/*
+ * Persistencia del snapshot del catálogo en disco
+ */
+package com.testCus.shoppingcart.catalog;
+
+import com.testCus.shoppingcart.dto.ProductDTO;
+import com.testCus.shoppingcart.dto.Rating;
+import com.testCus.shoppingcart.util.LogUtil;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * Guarda y recupera el catálogo en un archivo binario compacto para arrancar en caliente.
+ *
+ * Formato (big-endian): magic "CATS", versión de formato (short), versión del catálogo (long),
+ * huella (long), fecha de guardado en ms (long), cantidad de productos (int),
+ * longitud del contenido (int), CRC32 del contenido (long) y el contenido con un
+ * registro por producto. El archivo se lee con un {@link MappedByteBuffer}.
+ */
+@Component
+public class CatalogSnapshotStore {
+
+    private static final Logger logger = LogUtil.getLogger(CatalogSnapshotStore.class);
+    private static final String OPERATION_SNAPSHOT_STORE = "CATALOG_SNAPSHOT_STORE";
+
+    private static final int MAGIC = 0x43415453; // "CATS"
+    private static final short FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 2 + 8 + 8 + 8 + 4 + 4 + 8;
+    private static final int NULL_STRING = -1;
+
+    private final boolean enabled;
+    private final Path path;
+    // Versión del último snapshot escrito; protegida por el monitor de esta instancia
+    private long savedVersion = Long.MIN_VALUE;
+
+    public CatalogSnapshotStore(@Value("${catalog.snapshot.enabled:true}") boolean enabled,
+                                @Value("${catalog.snapshot.path:data/catalog-snapshot.bin}") String path) {
+        this.enabled = enabled;
+        this.path = Paths.get(path);
+    }
+
+    /**
+     * Datos recuperados del archivo
+     */
+    public static class StoredCatalog {
+        private final long version;
+        private final long fingerprint;
+        private final long savedAtMillis;
+        private final List<ProductDTO> products;
+
+        StoredCatalog(long version, long fingerprint, long savedAtMillis, List<ProductDTO> products) {
+            this.version = version;
+            this.fingerprint = fingerprint;
+            this.savedAtMillis = savedAtMillis;
+            this.products = products;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public long getFingerprint() {
+            return fingerprint;
+        }
+
+        public long getSavedAtMillis() {
+            return savedAtMillis;
+        }
+
+        public List<ProductDTO> getProducts() {
+            return products;
+        }
+    }
+
+    /**
+     * Escribe el snapshot de forma atómica (archivo temporal + renombrado)
+     */
+    public void save(CatalogSnapshot snapshot) {
+        if (!enabled || snapshot.isEmpty()) {
+            return;
+        }
+        String transactionId = "SNP-" + System.currentTimeMillis();
+        try {
+            byte[] payload = encode(snapshot.getProducts());
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC);
+            header.putShort(FORMAT_VERSION);
+            header.putLong(snapshot.getVersion());
+            header.putLong(snapshot.getFingerprint());
+            header.putLong(System.currentTimeMillis());
+            header.putInt(snapshot.getProducts().size());
+            header.putInt(payload.length);
+            header.putLong(crc.getValue());
+            header.flip();
+
+            // Las publicaciones guardan fuera del candado del catálogo; se escribe de a una y se
+            // descarta un snapshot más viejo que el ya guardado para no reemplazarlo
+            synchronized (this) {
+                if (snapshot.getVersion() <= savedVersion) {
+                    LogUtil.logInfo(logger, OPERATION_SNAPSHOT_STORE, transactionId,
+                        String.format("Se omite el snapshot v%d, ya se guardó el v%d", snapshot.getVersion(), savedVersion));
+                    return;
+                }
+                write(header, payload);
+                savedVersion = snapshot.getVersion();
+            }
+
+            LogUtil.logInfo(logger, OPERATION_SNAPSHOT_STORE, transactionId,
+                String.format("Snapshot v%d guardado en %s (%d bytes)", snapshot.getVersion(), path, HEADER_SIZE + payload.length));
+        } catch (IOException e) {
+            LogUtil.logWarning(logger, OPERATION_SNAPSHOT_STORE, transactionId,
+                "No se pudo guardar el snapshot del catálogo: " + e.getMessage());
+        }
+    }
+
+    private void write(ByteBuffer header, byte[] payload) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(new ByteBuffer[] {header, ByteBuffer.wrap(payload)});
+                channel.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            // Tras un renombrado exitoso el temporal ya no existe
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Lee el snapshot guardado, validando formato y checksum
+     * @return catálogo guardado o vacío si no existe o es inválido
+     */
+    public Optional<StoredCatalog> load() {
+        if (!enabled || !Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        String transactionId = "SNP-" + System.currentTimeMillis();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                throw new IOException("Archivo de snapshot no reconocido");
+            }
+            short formatVersion = buffer.getShort();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Versión de formato no soportada: " + formatVersion);
+            }
+            long version = buffer.getLong();
+            long fingerprint = buffer.getLong();
+            long savedAt = buffer.getLong();
+            int count = buffer.getInt();
+            int payloadLength = buffer.getInt();
+            long expectedCrc = buffer.getLong();
+            if (payloadLength != buffer.remaining()) {
+                throw new IOException("Longitud de contenido inválida");
+            }
+
+            ByteBuffer payload = buffer.slice();
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if (crc.getValue() != expectedCrc) {
+                throw new IOException("Checksum inválido");
+            }
+
+            List<ProductDTO> products = decode(payload, count);
+            LogUtil.logInfo(logger, OPERATION_SNAPSHOT_STORE, transactionId,
+                String.format("Snapshot v%d cargado desde %s con %d productos", version, path, products.size()));
+            return Optional.of(new StoredCatalog(version, fingerprint, savedAt, products));
+        } catch (IOException | RuntimeException e) {
+            LogUtil.logWarning(logger, OPERATION_SNAPSHOT_STORE, transactionId,
+                "Se ignora el snapshot guardado en " + path + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private byte[] encode(List<ProductDTO> products) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(products.size() * 256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (ProductDTO product : products) {
+                out.writeInt(product.getId());
+                out.writeDouble(product.getPrice());
+                writeString(out, product.getTitle());
+                writeString(out, product.getDescription());
+                writeString(out, product.getCategory());
+                writeString(out, product.getImage());
+                Rating rating = product.getRating();
+                out.writeBoolean(rating != null);
+                if (rating != null) {
+                    out.writeDouble(rating.getRate());
+                    out.writeInt(rating.getCount());
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private List<ProductDTO> decode(ByteBuffer payload, int count) {
+        List<ProductDTO> products = new ArrayList<>(count);
+        Map<String, String> categories = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            ProductDTO product = new ProductDTO();
+            product.setId(payload.getInt());
+            product.setPrice(payload.getDouble());
+            product.setTitle(readString(payload));
+            product.setDescription(readString(payload));
+            String category = readString(payload);
+            product.setCategory(category == null ? null : categories.computeIfAbsent(category, c -> c));
+            product.setImage(readString(payload));
+            if (payload.get() != 0) {
+                Rating rating = new Rating();
+                rating.setRate(payload.getDouble());
+                rating.setCount(payload.getInt());
+                product.setRating(rating);
+            }
+            products.add(product);
+        }
+        return products;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Catálogo de productos en memoria con refresco en segundo plano
+ */
+package com.testCus.shoppingcart.catalog;
+
+import com.testCus.shoppingcart.dto.ProductDTO;
+import com.testCus.shoppingcart.exception.ProductNotFoundException;
+import com.testCus.shoppingcart.service.FakeStoreClient;
+import com.testCus.shoppingcart.util.LogUtil;
+import com.testCus.shoppingcart.util.SingleFlight;
+import org.slf4j.Logger;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mantiene el snapshot vigente del catálogo de FakeStore.
+ * Las lecturas siempre se sirven desde memoria; el refresco periódico
+ * descarga el catálogo completo y reemplaza el snapshot de forma atómica
+ * (stale-while-revalidate), de modo que nunca se bloquea a los lectores.
+ */
+@Component
+public class ProductCatalog {
+
+    private static final Logger logger = LogUtil.getLogger(ProductCatalog.class);
+    private static final String OPERATION_REFRESH_CATALOG = "REFRESH_CATALOG";
+    private static final String OPERATION_RESTORE_CATALOG = "RESTORE_CATALOG";
+    private static final String OPERATION_PATCH_CATALOG = "PATCH_CATALOG";
+    private static final String FULL_CATALOG_KEY = "all";
+
+    private final FakeStoreClient fakeStoreClient;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogSnapshotStore snapshotStore;
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>(CatalogSnapshot.EMPTY);
+    private final AtomicLong versionSequence = new AtomicLong();
+    private final SingleFlight<String, CatalogSnapshot> catalogLoads = new SingleFlight<>();
+    private final Object publishLock = new Object();
+    private final LongAdder syncs = new LongAdder();
+    private final LongAdder addedProducts = new LongAdder();
+    private final LongAdder changedProducts = new LongAdder();
+    private final LongAdder removedProducts = new LongAdder();
+    private volatile Map<String, Object> lastSync;
+    private final Duration staleAfter;
+    private volatile Instant lastValidatedAt = Instant.EPOCH;
+
+    @Autowired
+    public ProductCatalog(FakeStoreClient fakeStoreClient, ApplicationEventPublisher eventPublisher,
+                          CatalogSnapshotStore snapshotStore,
+                          @Value("${catalog.stale-after:15m}") Duration staleAfter) {
+        this.fakeStoreClient = fakeStoreClient;
+        this.eventPublisher = eventPublisher;
+        this.snapshotStore = snapshotStore;
+        this.staleAfter = staleAfter;
+    }
+
+    /**
+     * Arranque en caliente: publica el último catálogo guardado en disco antes de
+     * atender peticiones. Su antigüedad se cuenta desde que se guardó, y el refresco
+     * programado lo revalida contra FakeStore en segundo plano.
+     */
+    @PostConstruct
+    public void restoreFromDisk() {
+        long startTime = System.currentTimeMillis();
+        snapshotStore.load().ifPresent(stored -> {
+            String transactionId = "CAT-" + startTime;
+            CatalogSnapshot restored = CatalogSnapshot.of(stored.getVersion(), stored.getFingerprint(), stored.getProducts());
+            versionSequence.set(stored.getVersion());
+            current.set(restored);
+            lastValidatedAt = Instant.ofEpochMilli(stored.getSavedAtMillis());
+            LogUtil.logOperationSuccess(logger, OPERATION_RESTORE_CATALOG, transactionId,
+                String.format("Snapshot v%d restaurado con %d productos (guardado %s)", restored.getVersion(),
+                    restored.getProducts().size(), lastValidatedAt));
+            LogUtil.logExecutionTime(logger, OPERATION_RESTORE_CATALOG, transactionId, startTime, System.currentTimeMillis());
+        });
+    }
+
+    /**
+     * Obtiene el snapshot vigente. Solo bloquea si aún no se ha cargado ninguno.
+     * @return Snapshot actual del catálogo
+     */
+    public CatalogSnapshot snapshot() {
+        CatalogSnapshot snapshot = current.get();
+        return snapshot.isEmpty() ? refresh() : snapshot;
+    }
+
+    /**
+     * Obtiene el snapshot vigente sin descargar nada, aunque aún no se haya cargado
+     * @return Snapshot actual, posiblemente {@link CatalogSnapshot#EMPTY}
+     */
+    public CatalogSnapshot currentSnapshot() {
+        return current.get();
+    }
+
+    /**
+     * Descarga el catálogo completo y publica un nuevo snapshot.
+     * Las llamadas concurrentes comparten una única descarga.
+     * @return Snapshot recién publicado
+     */
+    public CatalogSnapshot refresh() {
+        return catalogLoads.execute(FULL_CATALOG_KEY, this::loadCatalog);
+    }
+
+    /**
+     * Vuelve a descargar un solo producto y publica un snapshot que solo difiere en él.
+     * Si FakeStore ya no lo tiene se elimina del catálogo. Mientras tanto se sigue
+     * sirviendo el snapshot vigente.
+     * @return Snapshot publicado, o el vigente si el producto no cambió
+     */
+    public CatalogSnapshot refreshProduct(int id) {
+        return catalogLoads.execute("product:" + id, () -> {
+            ProductDTO product;
+            try {
+                product = fakeStoreClient.fetchProduct(id);
+            } catch (HttpClientErrorException.NotFound e) {
+                product = null;
+            }
+            List<ProductDTO> replacements = product != null && product.getId() == id ? List.of(product) : List.of();
+            return publishPatch("producto " + id, existing -> existing.getId() == id, replacements);
+        });
+    }
+
+    /**
+     * Vuelve a descargar los productos de una categoría y publica un snapshot que solo
+     * difiere en ellos. Los productos que FakeStore ya no lista en la categoría se eliminan.
+     * @return Snapshot publicado, o el vigente si la categoría no cambió
+     */
+    public CatalogSnapshot refreshCategory(String category) {
+        String key = CatalogSnapshot.categoryKey(category);
+        return catalogLoads.execute("category:" + key, () -> {
+            List<ProductDTO> fetched = fakeStoreClient.fetchProductsByCategory(category);
+            List<ProductDTO> replacements = new ArrayList<>();
+            if (fetched != null) {
+                for (ProductDTO product : fetched) {
+                    if (CatalogSnapshot.categoryKey(product.getCategory()).equals(key)) {
+                        replacements.add(product);
+                    }
+                }
+            }
+            return publishPatch("categoría " + category, existing -> existing.getCategory() != null
+                && CatalogSnapshot.categoryKey(existing.getCategory()).equals(key), replacements);
+        });
+    }
+
+    /**
+     * @return contadores de coalescencia de las descargas del catálogo
+     */
+    public SingleFlight<String, CatalogSnapshot> getCatalogLoads() {
+        return catalogLoads;
+    }
+
+    /**
+     * @return momento de la última descarga exitosa, haya cambiado o no el contenido
+     */
+    public Instant getLastValidatedAt() {
+        return lastValidatedAt;
+    }
+
+    /**
+     * Indica si el snapshot vigente podría estar desactualizado: FakeStore no está
+     * respondiendo (circuito abierto) o no se ha validado en más de {@code catalog.stale-after}
+     * @return true si se está sirviendo el último catálogo conocido en modo degradado
+     */
+    public boolean isStale() {
+        if (current.get().isEmpty()) {
+            return false;
+        }
+        return !fakeStoreClient.isUpstreamHealthy()
+            || lastValidatedAt.plus(staleAfter).isBefore(Instant.now());
+    }
+
+    /**
+     * @return tiempo transcurrido desde la última descarga exitosa del catálogo
+     */
+    public Duration getAge() {
+        return Duration.between(lastValidatedAt, Instant.now());
+    }
+
+    private CatalogSnapshot loadCatalog() {
+        String transactionId = "CAT-" + System.currentTimeMillis();
+        long startTime = System.currentTimeMillis();
+
+        List<ProductDTO> products = fakeStoreClient.fetchAllProducts();
+        if (products == null || products.isEmpty()) {
+            throw new ProductNotFoundException("No products found.");
+        }
+
+        lastValidatedAt = Instant.now();
+        return publish(OPERATION_REFRESH_CATALOG, transactionId, startTime, "catálogo completo", previous -> products);
+    }
+
+    /**
+     * Reemplaza en el snapshot vigente los productos que cumplen {@code replaced} por
+     * {@code replacements}, conservando su posición; los reemplazos nuevos van al final.
+     */
+    private CatalogSnapshot publishPatch(String scope, Predicate<ProductDTO> replaced, List<ProductDTO> replacements) {
+        String transactionId = "CAT-" + System.currentTimeMillis();
+        long startTime = System.currentTimeMillis();
+        snapshot(); // asegura un snapshot base sin retener el candado durante la descarga
+        return publish(OPERATION_PATCH_CATALOG, transactionId, startTime, scope, previous -> {
+            Map<Integer, ProductDTO> pending = new LinkedHashMap<>();
+            for (ProductDTO product : replacements) {
+                pending.put(product.getId(), product);
+            }
+            List<ProductDTO> products = new ArrayList<>(previous.getProducts().size() + pending.size());
+            for (ProductDTO existing : previous.getProducts()) {
+                ProductDTO replacement = pending.remove(existing.getId());
+                if (replacement != null) {
+                    products.add(replacement);
+                } else if (!replaced.test(existing)) {
+                    products.add(existing);
+                }
+            }
+            products.addAll(pending.values());
+            return products;
+        });
+    }
+
+    /**
+     * Compara la nueva lista contra el snapshot vigente y publica solo si hay diferencias.
+     * El nuevo snapshot se construye aplicando las diferencias, por lo que el costo depende
+     * de cuántos productos cambiaron y no del tamaño del catálogo. Se publica bajo un candado
+     * compartido por refrescos completos y parciales para que ninguno pierda los cambios del otro.
+     * @param nextProducts Calcula la nueva lista a partir del snapshot vigente
+     */
+    private CatalogSnapshot publish(String operation, String transactionId, long startTime, String scope,
+                                    Function<CatalogSnapshot, List<ProductDTO>> nextProducts) {
+        CatalogSnapshot previous;
+        CatalogSnapshot next;
+        CatalogDiff diff;
+        synchronized (publishLock) {
+            previous = current.get();
+            diff = CatalogDiff.compute(previous, nextProducts.apply(previous));
+            if (diff.isEmpty()) {
+                recordSync(scope, diff, previous, false, startTime);
+                LogUtil.logInfo(logger, operation, transactionId,
+                    "Sin cambios en " + scope + ", se conserva el snapshot v" + previous.getVersion());
+                return previous;
+            }
+            next = CatalogSnapshot.apply(previous, versionSequence.incrementAndGet(), diff);
+            current.set(next);
+            eventPublisher.publishEvent(previous.isEmpty()
+                ? new CatalogRefreshedEvent(previous, next)
+                : new CatalogRefreshedEvent(previous, next, diff.getChangedIds(), diff.getChangedCategories()));
+            recordSync(scope, diff, next, true, startTime);
+        }
+        // Fuera del candado para no demorar otras publicaciones; el almacén serializa las
+        // escrituras y descarta un snapshot más viejo que el ya guardado
+        snapshotStore.save(next);
+
+        LogUtil.logOperationSuccess(logger, operation, transactionId,
+            String.format("Snapshot v%d publicado (%s): %d agregados, %d modificados, %d eliminados, %d sin cambios",
+                next.getVersion(), scope, diff.getAdded(), diff.getChanged(), diff.getRemoved(), diff.getUnchanged()));
+        LogUtil.logExecutionTime(logger, operation, transactionId, startTime, System.currentTimeMillis());
+        return next;
+    }
+
+    private void recordSync(String scope, CatalogDiff diff, CatalogSnapshot result, boolean published, long startTime) {
+        syncs.increment();
+        addedProducts.add(diff.getAdded());
+        changedProducts.add(diff.getChanged());
+        removedProducts.add(diff.getRemoved());
+        Map<String, Object> sync = new LinkedHashMap<>();
+        sync.put("scope", scope);
+        sync.put("version", result.getVersion());
+        sync.put("added", diff.getAdded());
+        sync.put("changed", diff.getChanged());
+        sync.put("removed", diff.getRemoved());
+        sync.put("unchanged", diff.getUnchanged());
+        sync.put("published", published);
+        // Incremental: los índices se corrigieron en las posiciones cambiadas en lugar de reconstruirse
+        sync.put("incremental", published && result.getParentVersion() >= 0);
+        sync.put("durationMs", System.currentTimeMillis() - startTime);
+        sync.put("at", Instant.now().toString());
+        lastSync = sync;
+    }
+
+    /**
+     * @return totales de productos agregados, modificados y eliminados por las sincronizaciones,
+     *         y el detalle de la última
+     */
+    public Map<String, Object> getSyncStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("syncs", syncs.sum());
+        stats.put("added", addedProducts.sum());
+        stats.put("changed", changedProducts.sum());
+        stats.put("removed", removedProducts.sum());
+        stats.put("last", lastSync);
+        return stats;
+    }
+
+    /**
+     * Refresco periódico. Si falla se conserva el snapshot anterior.
+     */
+    @Scheduled(initialDelayString = "${catalog.refresh.initial-delay-ms:0}",
+               fixedDelayString = "${catalog.refresh.interval-ms:300000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            LogUtil.logWarning(logger, OPERATION_REFRESH_CATALOG, "CAT-" + System.currentTimeMillis(),
+                "No se pudo refrescar el catálogo, se conserva el snapshot v" + current.get().getVersion()
+                    + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Cursor opaco para paginar el catálogo
+ */
+package com.testCus.shoppingcart.catalog;
+
+import com.testCus.shoppingcart.dto.ProductDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posición (orden, dirección, valor, ID) del último producto entregado.
+ * Se codifica en Base64 URL-safe para que el cliente lo trate como opaco; al no depender
+ * de la posición numérica, sigue siendo válido aunque el catálogo cambie entre páginas.
+ */
+public final class ProductCursor {
+
+    private static final String VERSION = "1";
+    private static final String SEPARATOR = "\n";
+
+    private final ProductSort sort;
+    private final boolean descending;
+    private final String value;
+    private final int id;
+
+    public ProductCursor(ProductSort sort, boolean descending, String value, int id) {
+        this.sort = sort;
+        this.descending = descending;
+        this.value = value;
+        this.id = id;
+    }
+
+    /**
+     * @return cursor que apunta justo después del producto indicado
+     */
+    public static ProductCursor after(ProductSort sort, boolean descending, ProductDTO product) {
+        return new ProductCursor(sort, descending, sort.valueOf(product), product.getId());
+    }
+
+    public String encode() {
+        String raw = String.join(SEPARATOR, VERSION, sort.getParam(), descending ? "desc" : "asc",
+            Integer.toString(id), value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException si el cursor no fue generado por este servicio
+     */
+    public static ProductCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 5);
+            if (parts.length != 5 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            ProductSort sort = ProductSort.fromParam(parts[1]);
+            ProductCursor decoded = new ProductCursor(sort, "desc".equals(parts[2]), parts[4], Integer.parseInt(parts[3]));
+            if (sort == ProductSort.PRICE || sort == ProductSort.RATING) {
+                Double.parseDouble(decoded.value);
+            }
+            return decoded;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+
+    public ProductSort getSort() {
+        return sort;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public int getId() {
+        return id;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Huella de contenido de productos y catálogos
+ */
+package com.testCus.shoppingcart.catalog;
+
+import com.testCus.shoppingcart.dto.ProductDTO;
+import com.testCus.shoppingcart.dto.Rating;
+
+import java.util.List;
+
+/**
+ * Calcula huellas FNV-1a de 64 bits sobre todos los campos de un producto.
+ * Sirve para detectar si el catálogo descargado cambió respecto al vigente
+ * sin comparar objeto por objeto.
+ */
+public final class ProductFingerprint {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ProductFingerprint() {
+    }
+
+    /**
+     * @return huella del producto (incluye todos los campos serializados)
+     */
+    public static long of(ProductDTO product) {
+        long hash = FNV_OFFSET_BASIS;
+        hash = mix(hash, product.getId());
+        hash = mix(hash, product.getTitle());
+        hash = mix(hash, Double.doubleToLongBits(product.getPrice()));
+        hash = mix(hash, product.getDescription());
+        hash = mix(hash, product.getCategory());
+        hash = mix(hash, product.getImage());
+        Rating rating = product.getRating();
+        if (rating != null) {
+            hash = mix(hash, Double.doubleToLongBits(rating.getRate()));
+            hash = mix(hash, rating.getCount());
+        } else {
+            hash = mix(hash, -1L);
+        }
+        return hash;
+    }
+
+    /**
+     * @return huella de la lista completa, sensible al orden de los productos
+     */
+    public static long of(List<ProductDTO> products) {
+        long hash = FNV_OFFSET_BASIS;
+        for (ProductDTO product : products) {
+            hash = mix(hash, of(product));
+        }
+        return mix(hash, products.size());
+    }
+
+    /**
+     * Misma huella que {@link #of(List)} a partir de las huellas ya calculadas de cada producto
+     */
+    public static long combine(long[] productHashes) {
+        long hash = FNV_OFFSET_BASIS;
+        for (long productHash : productHashes) {
+            hash = mix(hash, productHash);
+        }
+        return mix(hash, productHashes.length);
+    }
+
+    private static long mix(long hash, long value) {
+        for (int i = 0; i < 8; i++) {
+            hash ^= (value >>> (i * 8)) & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, String value) {
+        if (value == null) {
+            return mix(hash, 0L);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            hash ^= c & 0xff;
+            hash *= FNV_PRIME;
+            hash ^= c >>> 8;
+            hash *= FNV_PRIME;
+        }
+        return mix(hash, value.length());
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Índice de productos por ID con tipos primitivos
+ */
+package com.testCus.shoppingcart.catalog;
+
+import com.testCus.shoppingcart.dto.ProductDTO;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Mapa de direccionamiento abierto (sondeo lineal) de ID a posición en el catálogo.
+ * Las claves, precios y categorías se guardan en arreglos primitivos, por lo que
+ * las búsquedas no crean objetos ni convierten el ID a {@link Integer}.
+ * Es inmutable: se construye una vez por snapshot.
+ */
+public final class ProductIdIndex {
+
+    private static final int EMPTY_SLOT = 0; // los IDs válidos son positivos
+
+    private final int[] keys;
+    private final int[] positions;
+    private final int mask;
+    private final ProductDTO[] products;
+    private final double[] prices;
+    private final int[] categoryOrdinals;
+
+    private ProductIdIndex(int[] keys, int[] positions, ProductDTO[] products, double[] prices, int[] categoryOrdinals) {
+        this.keys = keys;
+        this.positions = positions;
+        this.mask = keys.length - 1;
+        this.products = products;
+        this.prices = prices;
+        this.categoryOrdinals = categoryOrdinals;
+    }
+
+    /**
+     * @param categories Categorías ordenadas; la posición de cada una es su ordinal
+     */
+    static ProductIdIndex build(List<ProductDTO> source, List<String> categories) {
+        int size = source.size();
+        // Factor de carga máximo de 0.5 para mantener cortas las secuencias de sondeo
+        int capacity = Integer.highestOneBit(Math.max(2, size) * 2 - 1) << 1;
+        int[] keys = new int[capacity];
+        int[] positions = new int[capacity];
+        ProductDTO[] products = new ProductDTO[size];
+        double[] prices = new double[size];
+        int[] categoryOrdinals = new int[size];
+
+        for (int position = 0; position < size; position++) {
+            ProductDTO product = source.get(position);
+            products[position] = product;
+            prices[position] = product.getPrice();
+            categoryOrdinals[position] = product.getCategory() != null
+                ? Math.max(-1, Collections.binarySearch(categories, product.getCategory())) : -1;
+
+            int id = product.getId();
+            if (id == EMPTY_SLOT) {
+                continue;
+            }
+            int slot = mix(id) & (capacity - 1);
+            while (keys[slot] != EMPTY_SLOT && keys[slot] != id) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            // Con IDs repetidos gana el último, igual que en un Map
+            keys[slot] = id;
+            positions[slot] = position;
+        }
+        return new ProductIdIndex(keys, positions, products, prices, categoryOrdinals);
+    }
+
+    /**
+     * Índice de la versión siguiente cuando cada ID conserva su posición: comparte la tabla
+     * de claves y solo reemplaza producto, precio y categoría en las posiciones cambiadas
+     * @param changedPositions Posiciones modificadas en {@code source}
+     * @param categories Categorías ordenadas; deben ser las mismas con las que se construyó este índice
+     */
+    ProductIdIndex patch(List<ProductDTO> source, int[] changedPositions, List<String> categories) {
+        ProductDTO[] patchedProducts = products.clone();
+        double[] patchedPrices = prices.clone();
+        int[] patchedOrdinals = categoryOrdinals.clone();
+        for (int position : changedPositions) {
+            ProductDTO product = source.get(position);
+            patchedProducts[position] = product;
+            patchedPrices[position] = product.getPrice();
+            patchedOrdinals[position] = product.getCategory() != null
+                ? Math.max(-1, Collections.binarySearch(categories, product.getCategory())) : -1;
+        }
+        return new ProductIdIndex(keys, positions, patchedProducts, patchedPrices, patchedOrdinals);
+    }
+
+    /**
+     * @return posición del producto en el catálogo o -1 si el ID no existe
+     */
+    public int positionOf(int id) {
+        if (id == EMPTY_SLOT) {
+            return -1;
+        }
+        int slot = mix(id) & mask;
+        while (true) {
+            int key = keys[slot];
+            if (key == id) {
+                return positions[slot];
+            }
+            if (key == EMPTY_SLOT) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * @return producto con el ID o null si no existe
+     */
+    public ProductDTO get(int id) {
+        int position = positionOf(id);
+        return position < 0 ? null : products[position];
+    }
+
+    /**
+     * @return precio del producto o {@link Double#NaN} si el ID no existe
+     */
+    public double priceOf(int id) {
+        int position = positionOf(id);
+        return position < 0 ? Double.NaN : prices[position];
+    }
+
+    /**
+     * @return ordinal de la categoría del producto o -1 si el ID no existe o no tiene categoría
+     */
+    public int categoryOrdinalOf(int id) {
+        int position = positionOf(id);
+        return position < 0 ? -1 : categoryOrdinals[position];
+    }
+
+    public boolean contains(int id) {
+        return positionOf(id) >= 0;
+    }
+
+    /**
+     * Dispersa los bits del ID para que IDs consecutivos no formen bloques de colisiones
+     */
+    private static int mix(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
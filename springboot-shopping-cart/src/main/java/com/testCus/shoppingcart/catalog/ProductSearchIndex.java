@@ -0,0 +1,467 @@
+/*
+ * Índice invertido de búsqueda sobre el catálogo
+ */
+package com.testCus.shoppingcart.catalog;
+
+import com.testCus.shoppingcart.dto.ProductDTO;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido inmutable sobre título y descripción de un snapshot del catálogo.
+ * Los términos se normalizan en minúsculas y sin acentos (cámara = camara, niño = nino)
+ * y cada término apunta a las posiciones ordenadas de los productos que lo contienen.
+ * Al reconstruirse reutiliza los términos ya calculados de los productos cuyo
+ * texto no cambió respecto al índice anterior.
+ */
+public final class ProductSearchIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOP_WORDS = Set.of(
+        "a", "al", "con", "de", "del", "el", "en", "la", "las", "lo", "los", "para", "por", "un", "una", "y",
+        "an", "and", "for", "in", "of", "on", "the", "to", "with");
+
+    public static final ProductSearchIndex EMPTY = build(CatalogSnapshot.EMPTY, null);
+
+    private final long version;
+    private final List<ProductDTO> products;
+    private final String[] terms;
+    private final int[][] titlePostings;
+    private final int[][] descriptionPostings;
+    private final IndexedText[] texts;
+    private final ProductIdIndex idIndex;
+    private final double[] prices;
+    private final double[] ratings;
+    private final int[] categoryOrdinals;
+    private final String[] categoryNames;
+    private final int reusedDocuments;
+
+    /**
+     * Términos ya calculados del título y la descripción de un producto
+     */
+    private record IndexedText(String title, String description, String[] titleTerms, String[] descriptionTerms) {
+    }
+
+    private ProductSearchIndex(long version, List<ProductDTO> products, String[] terms,
+                               int[][] titlePostings, int[][] descriptionPostings,
+                               IndexedText[] texts, ProductIdIndex idIndex, double[] prices, double[] ratings,
+                               int[] categoryOrdinals, String[] categoryNames, int reusedDocuments) {
+        this.version = version;
+        this.products = products;
+        this.terms = terms;
+        this.titlePostings = titlePostings;
+        this.descriptionPostings = descriptionPostings;
+        this.texts = texts;
+        this.idIndex = idIndex;
+        this.prices = prices;
+        this.ratings = ratings;
+        this.categoryOrdinals = categoryOrdinals;
+        this.categoryNames = categoryNames;
+        this.reusedDocuments = reusedDocuments;
+    }
+
+    /**
+     * Construye el índice del snapshot. Si el snapshot se derivó del que indexa {@code previous}
+     * sin mover productos, solo se actualizan las listas de los términos de los productos cambiados.
+     * @param previous Índice anterior cuyos términos se reutilizan (puede ser null)
+     */
+    public static ProductSearchIndex build(CatalogSnapshot snapshot, ProductSearchIndex previous) {
+        if (previous != null && snapshot.getParentVersion() >= 0 && snapshot.getParentVersion() == previous.version) {
+            return previous.patch(snapshot);
+        }
+        List<ProductDTO> products = snapshot.getProducts();
+        int size = products.size();
+        IndexedText[] texts = new IndexedText[size];
+        TreeMap<String, Postings[]> postings = new TreeMap<>();
+        double[] prices = new double[size];
+        double[] ratings = new double[size];
+        int[] categoryOrdinals = new int[size];
+        List<String> categoryNames = snapshot.getCategories();
+        Map<String, Integer> categoryOrdinalByName = new HashMap<>();
+        for (int i = 0; i < categoryNames.size(); i++) {
+            categoryOrdinalByName.put(categoryNames.get(i), i);
+        }
+        int reused = 0;
+
+        for (int doc = 0; doc < size; doc++) {
+            ProductDTO product = products.get(doc);
+            IndexedText previousText = previous == null ? null : previous.textOf(product.getId());
+            IndexedText text = indexText(product, previousText);
+            if (text == previousText) {
+                reused++;
+            }
+            texts[doc] = text;
+
+            for (String term : text.titleTerms()) {
+                postings.computeIfAbsent(term, t -> new Postings[] {new Postings(), new Postings()})[0].add(doc);
+            }
+            for (String term : text.descriptionTerms()) {
+                postings.computeIfAbsent(term, t -> new Postings[] {new Postings(), new Postings()})[1].add(doc);
+            }
+
+            prices[doc] = product.getPrice();
+            ratings[doc] = product.getRating() != null ? product.getRating().getRate() : 0.0;
+            categoryOrdinals[doc] = product.getCategory() != null
+                ? categoryOrdinalByName.getOrDefault(product.getCategory(), -1) : -1;
+        }
+
+        String[] terms = postings.keySet().toArray(String[]::new);
+        int[][] titlePostings = new int[terms.length][];
+        int[][] descriptionPostings = new int[terms.length][];
+        int t = 0;
+        for (Postings[] lists : postings.values()) {
+            titlePostings[t] = lists[0].toArray();
+            descriptionPostings[t] = lists[1].toArray();
+            t++;
+        }
+
+        return new ProductSearchIndex(snapshot.getVersion(), products, terms, titlePostings, descriptionPostings,
+            texts, snapshot.getIdIndex(), prices, ratings, categoryOrdinals, categoryNames.toArray(String[]::new), reused);
+    }
+
+    /**
+     * Aplica sobre este índice los cambios de un snapshot derivado del que indexa: copia los
+     * arreglos por producto, reemplaza los valores de las posiciones cambiadas y reconstruye
+     * únicamente las listas de los términos que esos productos agregaron o quitaron.
+     */
+    private ProductSearchIndex patch(CatalogSnapshot snapshot) {
+        List<ProductDTO> nextProducts = snapshot.getProducts();
+        int[] changed = snapshot.getChangedPositions();
+        IndexedText[] nextTexts = texts.clone();
+        double[] nextPrices = prices.clone();
+        double[] nextRatings = ratings.clone();
+        int[] nextOrdinals = categoryOrdinals.clone();
+        List<String> categories = snapshot.getCategories();
+        TreeMap<String, TermDelta> deltas = new TreeMap<>();
+        int retokenized = 0;
+
+        for (int doc : changed) {
+            ProductDTO product = nextProducts.get(doc);
+            IndexedText previousText = texts[doc];
+            IndexedText text = indexText(product, previousText);
+            if (text != previousText) {
+                retokenized++;
+                collectDeltas(deltas, doc, previousText.titleTerms(), text.titleTerms(), true);
+                collectDeltas(deltas, doc, previousText.descriptionTerms(), text.descriptionTerms(), false);
+            }
+            nextTexts[doc] = text;
+            nextPrices[doc] = product.getPrice();
+            nextRatings[doc] = product.getRating() != null ? product.getRating().getRate() : 0.0;
+            nextOrdinals[doc] = product.getCategory() != null
+                ? Math.max(-1, Collections.binarySearch(categories, product.getCategory())) : -1;
+        }
+
+        // Une los términos existentes con los nuevos (ambos ordenados); los que quedan sin productos se descartan
+        List<String> nextTerms = new ArrayList<>(terms.length + deltas.size());
+        List<int[]> nextTitlePostings = new ArrayList<>(terms.length + deltas.size());
+        List<int[]> nextDescriptionPostings = new ArrayList<>(terms.length + deltas.size());
+        int t = 0;
+        for (Map.Entry<String, TermDelta> entry : deltas.entrySet()) {
+            String term = entry.getKey();
+            while (t < terms.length && terms[t].compareTo(term) < 0) {
+                nextTerms.add(terms[t]);
+                nextTitlePostings.add(titlePostings[t]);
+                nextDescriptionPostings.add(descriptionPostings[t]);
+                t++;
+            }
+            int[] title = Postings.NONE;
+            int[] description = Postings.NONE;
+            if (t < terms.length && terms[t].equals(term)) {
+                title = titlePostings[t];
+                description = descriptionPostings[t];
+                t++;
+            }
+            TermDelta delta = entry.getValue();
+            title = delta.applyTo(title, true);
+            description = delta.applyTo(description, false);
+            if (title.length > 0 || description.length > 0) {
+                nextTerms.add(term);
+                nextTitlePostings.add(title);
+                nextDescriptionPostings.add(description);
+            }
+        }
+        for (; t < terms.length; t++) {
+            nextTerms.add(terms[t]);
+            nextTitlePostings.add(titlePostings[t]);
+            nextDescriptionPostings.add(descriptionPostings[t]);
+        }
+
+        return new ProductSearchIndex(snapshot.getVersion(), nextProducts, nextTerms.toArray(String[]::new),
+            nextTitlePostings.toArray(int[][]::new), nextDescriptionPostings.toArray(int[][]::new),
+            nextTexts, snapshot.getIdIndex(), nextPrices, nextRatings, nextOrdinals, categoryNames,
+            nextProducts.size() - retokenized);
+    }
+
+    private static void collectDeltas(Map<String, TermDelta> deltas, int doc, String[] before, String[] after,
+                                      boolean title) {
+        Set<String> previousTerms = Set.of(before);
+        Set<String> nextTerms = Set.of(after);
+        for (String term : before) {
+            if (!nextTerms.contains(term)) {
+                deltas.computeIfAbsent(term, k -> new TermDelta()).removed(title).add(doc);
+            }
+        }
+        for (String term : after) {
+            if (!previousTerms.contains(term)) {
+                deltas.computeIfAbsent(term, k -> new TermDelta()).added(title).add(doc);
+            }
+        }
+    }
+
+    /**
+     * Términos del producto; reutiliza los anteriores si el título y la descripción no cambiaron
+     * @return {@code previous} o un texto recién indexado
+     */
+    private static IndexedText indexText(ProductDTO product, IndexedText previous) {
+        String title = nullToEmpty(product.getTitle());
+        String description = nullToEmpty(product.getDescription());
+        if (previous != null && previous.title().equals(title) && previous.description().equals(description)) {
+            return previous;
+        }
+        return new IndexedText(title, description,
+            tokenize(product.getTitle()).toArray(String[]::new),
+            tokenize(product.getDescription()).toArray(String[]::new));
+    }
+
+    private IndexedText textOf(int id) {
+        int doc = idIndex.positionOf(id);
+        return doc < 0 ? null : texts[doc];
+    }
+
+    /**
+     * Divide el texto en términos normalizados: minúsculas, sin acentos y sin palabras vacías
+     * @return términos únicos en el orden en que aparecen
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+            .toLowerCase(Locale.ROOT);
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    /**
+     * Resultado de evaluar una consulta contra el índice
+     */
+    public static final class Match {
+        private final BitSet documents;
+        private final BitSet[] titleHits;
+        private final BitSet[] descriptionHits;
+
+        private Match(BitSet documents, BitSet[] titleHits, BitSet[] descriptionHits) {
+            this.documents = documents;
+            this.titleHits = titleHits;
+            this.descriptionHits = descriptionHits;
+        }
+
+        /**
+         * @return posiciones de los productos que contienen todos los términos
+         */
+        public BitSet getDocuments() {
+            return documents;
+        }
+
+        /**
+         * Puntaje de relevancia: 2 por cada término en el título, 1 por cada término en la descripción
+         */
+        public int score(int doc) {
+            int score = 0;
+            for (int i = 0; i < titleHits.length; i++) {
+                if (titleHits[i].get(doc)) {
+                    score += 2;
+                }
+                if (descriptionHits[i].get(doc)) {
+                    score += 1;
+                }
+            }
+            return score;
+        }
+    }
+
+    /**
+     * Busca los productos que contienen todos los términos en el título o la descripción.
+     * El último término se busca como prefijo para permitir búsquedas mientras se escribe.
+     * @param queryTerms Términos ya normalizados con {@link #tokenize(String)}
+     * @return productos encontrados (todos si no hay términos) con sus aciertos por término
+     */
+    public Match match(List<String> queryTerms) {
+        BitSet documents = new BitSet(products.size());
+        documents.set(0, products.size());
+        BitSet[] titleHits = new BitSet[queryTerms.size()];
+        BitSet[] descriptionHits = new BitSet[queryTerms.size()];
+        for (int i = 0; i < queryTerms.size(); i++) {
+            boolean prefix = i == queryTerms.size() - 1;
+            titleHits[i] = postingsFor(queryTerms.get(i), prefix, true);
+            descriptionHits[i] = postingsFor(queryTerms.get(i), prefix, false);
+            BitSet either = (BitSet) titleHits[i].clone();
+            either.or(descriptionHits[i]);
+            documents.and(either);
+        }
+        return new Match(documents, titleHits, descriptionHits);
+    }
+
+    private BitSet postingsFor(String term, boolean prefix, boolean title) {
+        BitSet postings = new BitSet(products.size());
+        int from = Arrays.binarySearch(terms, term);
+        if (from < 0) {
+            if (!prefix) {
+                return postings;
+            }
+            from = -from - 1;
+        }
+        for (int t = from; t < terms.length; t++) {
+            boolean exact = terms[t].equals(term);
+            if (!exact && !(prefix && terms[t].startsWith(term))) {
+                break;
+            }
+            for (int doc : title ? titlePostings[t] : descriptionPostings[t]) {
+                postings.set(doc);
+            }
+            if (!prefix) {
+                break;
+            }
+        }
+        return postings;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public ProductDTO product(int doc) {
+        return products.get(doc);
+    }
+
+    public double price(int doc) {
+        return prices[doc];
+    }
+
+    public double rating(int doc) {
+        return ratings[doc];
+    }
+
+    /**
+     * @return posición de la categoría en {@link #categoryName(int)} o -1 si no tiene
+     */
+    public int categoryOrdinal(int doc) {
+        return categoryOrdinals[doc];
+    }
+
+    public String categoryName(int ordinal) {
+        return categoryNames[ordinal];
+    }
+
+    public int categoryCount() {
+        return categoryNames.length;
+    }
+
+    public int size() {
+        return products.size();
+    }
+
+    public int termCount() {
+        return terms.length;
+    }
+
+    /**
+     * @return productos cuyos términos se reutilizaron del índice anterior
+     */
+    public int getReusedDocuments() {
+        return reusedDocuments;
+    }
+
+    /**
+     * Posiciones que un término gana o pierde en el título y la descripción.
+     * Se registran en orden ascendente porque los productos cambiados se recorren en orden.
+     */
+    private static final class TermDelta {
+        private final Postings titleAdded = new Postings();
+        private final Postings titleRemoved = new Postings();
+        private final Postings descriptionAdded = new Postings();
+        private final Postings descriptionRemoved = new Postings();
+
+        Postings added(boolean title) {
+            return title ? titleAdded : descriptionAdded;
+        }
+
+        Postings removed(boolean title) {
+            return title ? titleRemoved : descriptionRemoved;
+        }
+
+        /**
+         * @return lista ordenada sin las posiciones quitadas y con las agregadas
+         */
+        int[] applyTo(int[] postings, boolean title) {
+            int[] added = added(title).toArray();
+            int[] removed = removed(title).toArray();
+            if (added.length == 0 && removed.length == 0) {
+                return postings;
+            }
+            int[] merged = new int[postings.length + added.length];
+            int size = 0;
+            int a = 0;
+            int r = 0;
+            for (int doc : postings) {
+                while (r < removed.length && removed[r] < doc) {
+                    r++;
+                }
+                if (r < removed.length && removed[r] == doc) {
+                    continue;
+                }
+                while (a < added.length && added[a] < doc) {
+                    merged[size++] = added[a++];
+                }
+                merged[size++] = doc;
+            }
+            while (a < added.length) {
+                merged[size++] = added[a++];
+            }
+            return size == 0 ? Postings.NONE : Arrays.copyOf(merged, size);
+        }
+    }
+
+    /**
+     * Lista de posiciones que crece al agregar; se agregan en orden, por lo que queda ordenada
+     */
+    private static final class Postings {
+        private static final int[] NONE = new int[0];
+
+        private int[] docs = NONE;
+        private int size;
+
+        void add(int doc) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, Math.max(2, size * 2));
+            }
+            docs[size++] = doc;
+        }
+
+        int[] toArray() {
+            return size == 0 ? NONE : Arrays.copyOf(docs, size);
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Criterios de orden para listados paginados del catálogo
+ */
+package com.testCus.shoppingcart.catalog;
+
+import com.testCus.shoppingcart.dto.ProductDTO;
+
+import java.util.Locale;
+
+/**
+ * Claves de orden disponibles. Todas desempatan por ID para que el orden sea total
+ * y un cursor (valor, ID) identifique una posición única.
+ */
+public enum ProductSort {
+    ID("id"),
+    PRICE("price"),
+    RATING("rating"),
+    TITLE("title");
+
+    private final String param;
+
+    ProductSort(String param) {
+        this.param = param;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    /**
+     * @param param Nombre del parámetro (id, price, rating o title)
+     * @throws IllegalArgumentException si no es una clave conocida
+     */
+    public static ProductSort fromParam(String param) {
+        for (ProductSort sort : values()) {
+            if (sort.param.equalsIgnoreCase(param)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Orden no soportado: " + param + " (use id, price, rating o title)");
+    }
+
+    /**
+     * @return valor de orden del producto como texto, el mismo que se guarda en el cursor
+     */
+    public String valueOf(ProductDTO product) {
+        return switch (this) {
+            case ID -> Integer.toString(product.getId());
+            case PRICE -> Double.toString(product.getPrice());
+            case RATING -> Double.toString(product.getRating() != null ? product.getRating().getRate() : 0.0);
+            case TITLE -> product.getTitle() != null ? product.getTitle().toLowerCase(Locale.ROOT) : "";
+        };
+    }
+
+    /**
+     * Compara el producto contra la posición (valor, ID)
+     * @return negativo si el producto va antes, 0 si es la misma posición, positivo si va después
+     */
+    public int compare(ProductDTO product, String value, int id) {
+        int result = switch (this) {
+            case ID -> 0;
+            case PRICE -> Double.compare(product.getPrice(), Double.parseDouble(value));
+            case RATING -> Double.compare(product.getRating() != null ? product.getRating().getRate() : 0.0,
+                Double.parseDouble(value));
+            case TITLE -> valueOf(product).compareTo(value);
+        };
+        return result != 0 ? result : Integer.compare(product.getId(), id);
+    }
+
+    /**
+     * Compara dos productos con este criterio
+     */
+    public int compare(ProductDTO left, ProductDTO right) {
+        return compare(left, valueOf(right), right.getId());
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Configuración de los cachés de productos
+ */
+package com.testCus.shoppingcart.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.testCus.shoppingcart.service.ProductService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Cachés acotados con Caffeine (desalojo W-TinyLFU, expiración y refresco
+ * tras escritura, estadísticas de aciertos y tiempos de carga).
+ */
+@Configuration
+@EnableConfigurationProperties(ProductCacheProperties.class)
+public class CacheConfig {
+
+    public static final String PRODUCTS_CACHE = "products";
+    public static final String PRODUCTS_BY_CATEGORY_CACHE = "productsByCategory";
+    public static final String CATEGORIES_CACHE = "categories";
+
+    private static final List<String> PRODUCT_CACHES = List.of(PRODUCTS_CACHE, PRODUCTS_BY_CATEGORY_CACHE, CATEGORIES_CACHE);
+
+    @Bean
+    public CacheManager cacheManager(ProductCacheProperties properties, ObjectProvider<ProductService> productService) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+            .maximumSize(new ProductCacheProperties.Spec().getMaximumSize())
+            .expireAfterWrite(new ProductCacheProperties.Spec().getExpireAfterWrite())
+            .recordStats());
+
+        Set<String> cacheNames = new LinkedHashSet<>(PRODUCT_CACHES);
+        cacheNames.addAll(properties.getCaches().keySet());
+        for (String cacheName : cacheNames) {
+            ProductCacheProperties.Spec spec = properties.getCaches()
+                .getOrDefault(cacheName, new ProductCacheProperties.Spec());
+            cacheManager.registerCustomCache(cacheName, buildCache(spec, loaderFor(cacheName, productService)));
+        }
+        return cacheManager;
+    }
+
+    private Cache<Object, Object> buildCache(ProductCacheProperties.Spec spec, CacheLoader<Object, Object> loader) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+            .maximumSize(spec.getMaximumSize())
+            .recordStats();
+        if (spec.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+        // El refresco tras escritura necesita un loader para recalcular la entrada en segundo plano
+        if (loader == null) {
+            return builder.build();
+        }
+        if (spec.getRefreshAfterWrite() != null) {
+            builder.refreshAfterWrite(spec.getRefreshAfterWrite());
+        }
+        return builder.build(loader);
+    }
+
+    /**
+     * Loader usado por el refresco tras escritura; recalcula la vista sin pasar por el caché
+     */
+    private CacheLoader<Object, Object> loaderFor(String cacheName, ObjectProvider<ProductService> productService) {
+        return switch (cacheName) {
+            case PRODUCTS_CACHE -> key -> productService.getObject()
+                .loadProductDetails(ProductCacheKeyGenerator.toProductId(key));
+            case PRODUCTS_BY_CATEGORY_CACHE -> key -> productService.getObject().loadProductsByCategory((String) key);
+            case CATEGORIES_CACHE -> key -> productService.getObject().loadAllCategories();
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Configuración del sustituto local de FakeStore
+ */
+package com.testCus.shoppingcart.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testCus.shoppingcart.fakestore.FakeStoreStandIn;
+import com.testCus.shoppingcart.fakestore.FakeStoreStandInProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Levanta el sustituto de FakeStore dentro de la aplicación cuando
+ * {@code fakestore.stand-in.enabled=true}. {@link com.testCus.shoppingcart.service.FakeStoreClient}
+ * toma la URL del sustituto ya iniciado, por lo que no hace falta ajustar {@code product.api.base-url}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "fakestore.stand-in", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(FakeStoreStandInProperties.class)
+public class FakeStoreStandInConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public FakeStoreStandIn fakeStoreStandIn(FakeStoreStandInProperties properties, ObjectMapper objectMapper) {
+        return new FakeStoreStandIn(properties, objectMapper);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Configuración del cliente HTTP hacia la API de productos
+ */
+package com.testCus.shoppingcart.config;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+
+/**
+ * RestTemplate con pool de conexiones persistentes y tiempos de espera acotados,
+ * de modo que una respuesta lenta de FakeStore no retenga un hilo de Tomcat indefinidamente.
+ */
+@Configuration
+@EnableConfigurationProperties(ProductApiProperties.class)
+public class HttpClientConfig {
+
+    public static final String PRODUCT_REST_TEMPLATE = "productRestTemplate";
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient productHttpClient(ProductApiProperties properties) {
+        ProductApiProperties.Http http = properties.getHttp();
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(http.getMaxConnections())
+            .setMaxConnPerRoute(http.getMaxConnectionsPerRoute())
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(http.getConnectTimeout()))
+                .setSocketTimeout(Timeout.of(http.getReadTimeout()))
+                .setTimeToLive(TimeValue.of(http.getConnectionTimeToLive()))
+                .build())
+            .build();
+
+        return HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(http.getConnectionRequestTimeout()))
+                .setResponseTimeout(Timeout.of(http.getReadTimeout()))
+                .build())
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.of(http.getIdleEviction()))
+            .build();
+    }
+
+    @Bean(PRODUCT_REST_TEMPLATE)
+    public RestTemplate productRestTemplate(ProductApiProperties properties, CloseableHttpClient productHttpClient) {
+        return new RestTemplate(requestFactory(properties, productHttpClient));
+    }
+
+    private ClientHttpRequestFactory requestFactory(ProductApiProperties properties, CloseableHttpClient productHttpClient) {
+        ProductApiProperties.Http http = properties.getHttp();
+        if (http.isHttp2()) {
+            // El cliente del JDK negocia HTTP/2 y multiplexa peticiones sobre una misma conexión
+            HttpClient jdkClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(http.getConnectTimeout())
+                .build();
+            JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(jdkClient);
+            factory.setReadTimeout(http.getReadTimeout());
+            return factory;
+        }
+        return new HttpComponentsClientHttpRequestFactory(productHttpClient);
+    }
+}
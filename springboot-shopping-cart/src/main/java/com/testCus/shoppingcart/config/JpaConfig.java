@@ -0,0 +1,27 @@
+/*
+ * Configuración adicional de JPA/Hibernate
+ */
+package com.testCus.shoppingcart.config;
+
+import com.testCus.shoppingcart.model.OrderIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Pasa a Hibernate la configuración de la aplicación que necesitan los generadores de IDs
+ */
+@Configuration
+public class JpaConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer orderIdGeneratorCustomizer(
+            @Value("${orders.id.allocation-size:50}") int allocationSize,
+            @Value("${orders.id.optimizer:pooled-lo}") String optimizer) {
+        return properties -> {
+            properties.put(OrderIdGenerator.ALLOCATION_SIZE_SETTING, allocationSize);
+            properties.put(OrderIdGenerator.OPTIMIZER_SETTING, optimizer);
+        };
+    }
+}
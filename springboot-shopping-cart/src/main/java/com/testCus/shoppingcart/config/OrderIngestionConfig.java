@@ -0,0 +1,16 @@
+/*
+ * Configuración de la recepción asíncrona de órdenes
+ */
+package com.testCus.shoppingcart.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registra las propiedades {@code orders.write-behind.*} que usa
+ * {@link com.testCus.shoppingcart.service.OrderIngestionService}
+ */
+@Configuration
+@EnableConfigurationProperties(OrderIngestionProperties.class)
+public class OrderIngestionConfig {
+}
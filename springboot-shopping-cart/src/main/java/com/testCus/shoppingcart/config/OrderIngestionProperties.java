@@ -0,0 +1,95 @@
+/*
+ * Propiedades de la recepción asíncrona de órdenes
+ */
+package com.testCus.shoppingcart.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Cola en memoria y escritor en lotes de {@code POST /api/orders} en modo write-behind
+ * (prefijo {@code orders.write-behind})
+ */
+@ConfigurationProperties(prefix = "orders.write-behind")
+public class OrderIngestionProperties {
+
+    private boolean enabled = false;
+    private int queueCapacity = 10000;
+    private int batchSize = 200;
+    private Duration pollInterval = Duration.ofMillis(100);
+    private Duration retryAfter = Duration.ofSeconds(1);
+    private Duration trackingTtl = Duration.ofHours(1);
+    private long trackingMaximumSize = 100000;
+
+    /**
+     * @return true si {@code POST /api/orders} encola la orden y responde 202 en lugar de guardarla
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * @return máximo de órdenes que el escritor guarda por transacción
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return espera del escritor cuando la cola está vacía antes de revisar si debe detenerse
+     */
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * @return valor del encabezado Retry-After cuando la cola está llena (429)
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return tiempo que se conserva el estado de una orden para consultarlo por su tracking ID
+     */
+    public Duration getTrackingTtl() {
+        return trackingTtl;
+    }
+
+    public void setTrackingTtl(Duration trackingTtl) {
+        this.trackingTtl = trackingTtl;
+    }
+
+    public long getTrackingMaximumSize() {
+        return trackingMaximumSize;
+    }
+
+    public void setTrackingMaximumSize(long trackingMaximumSize) {
+        this.trackingMaximumSize = trackingMaximumSize;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Generador de claves para los cachés de productos
+ */
+package com.testCus.shoppingcart.config;
+
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+
+/**
+ * Genera las claves de los cachés de productos sin crear objetos nuevos:
+ * reutiliza el propio argumento (Integer o String) o una constante para
+ * las vistas completas, en lugar de evaluar una expresión SpEL por llamada.
+ */
+@Component(ProductCacheKeyGenerator.BEAN_NAME)
+public class ProductCacheKeyGenerator implements KeyGenerator {
+
+    public static final String BEAN_NAME = "productCacheKeyGenerator";
+    public static final String ALL_KEY = "all";
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        if (params.length == 0 || params[0] == null) {
+            return ALL_KEY;
+        }
+        Object param = params[0];
+        if (param instanceof Integer id && id == 0) {
+            return ALL_KEY;
+        }
+        return param;
+    }
+
+    /**
+     * Convierte una clave del caché {@code products} al ID de producto
+     * @return ID del producto o null para el catálogo completo
+     */
+    public static Integer toProductId(Object key) {
+        return key instanceof Integer id ? id : null;
+    }
+}
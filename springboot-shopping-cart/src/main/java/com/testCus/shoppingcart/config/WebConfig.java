@@ -3,6 +3,7 @@
  */
 package com.testCus.shoppingcart.config;
 
+import com.testCus.shoppingcart.interceptor.CatalogStalenessInterceptor;
 import com.testCus.shoppingcart.interceptor.LoggingInterceptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
@@ -18,10 +19,15 @@ public class WebConfig implements WebMvcConfigurer {
     @Autowired
     private LoggingInterceptor loggingInterceptor;
 
+    @Autowired
+    private CatalogStalenessInterceptor catalogStalenessInterceptor;
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(loggingInterceptor)
                 .addPathPatterns("/api/**")  // Aplicar a todos los endpoints de la API
                 .excludePathPatterns("/api/test/**"); // Excluir endpoints de prueba si es necesario
+        registry.addInterceptor(catalogStalenessInterceptor)
+                .addPathPatterns("/api/products/**"); // Marcar respuestas servidas con catálogo desactualizado
     }
 }
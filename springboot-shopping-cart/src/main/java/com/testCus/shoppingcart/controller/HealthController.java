@@ -0,0 +1,48 @@
+/*
+ * Controlador de estado de la aplicación
+ */
+package com.testCus.shoppingcart.controller;
+
+import com.testCus.shoppingcart.service.WarmupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Expone el estado de disponibilidad para balanceadores y orquestadores
+ */
+@RestController
+@RequestMapping("/api/health")
+public class HealthController {
+
+    private final ApplicationAvailability applicationAvailability;
+    private final WarmupService warmupService;
+
+    @Autowired
+    public HealthController(ApplicationAvailability applicationAvailability, WarmupService warmupService) {
+        this.applicationAvailability = applicationAvailability;
+        this.warmupService = warmupService;
+    }
+
+    /**
+     * Indica si la aplicación terminó el calentamiento y acepta tráfico
+     * @return 200 si acepta tráfico, 503 mientras se calienta
+     */
+    @GetMapping("/readiness")
+    public ResponseEntity<Map<String, Object>> getReadiness() {
+        ReadinessState readiness = applicationAvailability.getReadinessState();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("readiness", readiness);
+        body.put("warmup", warmupService.getStats());
+        HttpStatus status = readiness == ReadinessState.ACCEPTING_TRAFFIC ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(body);
+    }
+}
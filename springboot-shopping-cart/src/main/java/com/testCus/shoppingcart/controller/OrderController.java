@@ -4,18 +4,42 @@
  */
 package com.testCus.shoppingcart.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.testCus.shoppingcart.dto.OrderBatchItemResult;
+import com.testCus.shoppingcart.dto.OrderBatchResponse;
+import com.testCus.shoppingcart.dto.OrderIngestionResponse;
+import com.testCus.shoppingcart.dto.OrderPageResponse;
 import com.testCus.shoppingcart.dto.OrderPaymentDTO;
+import com.testCus.shoppingcart.dto.OrderStatsResponse;
 import com.testCus.shoppingcart.dto.OrderResponse;
 import com.testCus.shoppingcart.dto.ProductDTO;
+import com.testCus.shoppingcart.dto.TransactionResponse;
 import com.testCus.shoppingcart.model.OrderDetail;
 import com.testCus.shoppingcart.model.Product;
+import com.testCus.shoppingcart.service.OrderIngestionService;
 import com.testCus.shoppingcart.service.OrderService;
 import com.testCus.shoppingcart.service.TransactionIdService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import com.testCus.shoppingcart.dto.ErrorResponse;
 import org.springframework.http.HttpStatus;
@@ -31,36 +55,45 @@ public class OrderController {
 
     private final OrderService orderService;
     private final TransactionIdService transactionIdService;
+    private final OrderIngestionService orderIngestionService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int maxBatchSize;
+
+    private static final int STREAM_FLUSH_EVERY = 100;
 
     @Autowired
-    public OrderController(OrderService orderService, TransactionIdService transactionIdService) {
+    public OrderController(OrderService orderService, TransactionIdService transactionIdService,
+                           OrderIngestionService orderIngestionService,
+                           ObjectMapper objectMapper, Validator validator,
+                           @Value("${orders.batch.max-size:500}") int maxBatchSize) {
         this.orderService = orderService;
         this.transactionIdService = transactionIdService;
+        this.orderIngestionService = orderIngestionService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.maxBatchSize = maxBatchSize;
     }
 
     // Endpoint para crear una nueva orden
     @PostMapping
-    public ResponseEntity<OrderResponse> createOrder(@Valid @RequestBody OrderPaymentDTO orderPaymentDTO) {
+    public ResponseEntity<? extends TransactionResponse> createOrder(@Valid @RequestBody OrderPaymentDTO orderPaymentDTO) {
         // Generar ID de transacción
         String transactionId = transactionIdService.generateOrderTransactionId();
         
         // Crear la orden sin convertir productos a entidades JPA
-        OrderDetail order = new OrderDetail();
-        order.setCustomer(createCustomerFromDTO(orderPaymentDTO.getCustomer()));
-        
-        // Calcular el total de la orden
-        double total = orderPaymentDTO.getProducts().stream()
-                .mapToDouble(ProductDTO::getPrice)
-                .sum();
-        
-        // Establecer información de productos
-        order.setProductCount(orderPaymentDTO.getProducts().size());
-        order.setProductSummary("Orden con " + orderPaymentDTO.getProducts().size() + " productos");
-        order.setTotal(total);
-        order.setStatus("Pending");
-        
-        // No establecer productos aquí para evitar problemas de persistencia
-        // Los productos se manejarán como información de referencia
+        OrderDetail order = createOrderFromDTO(orderPaymentDTO);
+
+        // Modo write-behind: encolar la orden y responder sin esperar a la base de datos
+        if (orderIngestionService.isEnabled()) {
+            String trackingId = orderIngestionService.submit(order);
+            OrderIngestionResponse response = new OrderIngestionResponse(transactionId,
+                "Orden recibida; se guardará en segundo plano", trackingId, OrderIngestionService.STATUS_QUEUED, null, null);
+            return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/api/orders/ingestion/{trackingId}").buildAndExpand(trackingId).toUri())
+                .body(response);
+        }
 
         // Delegar al servicio (el logging se maneja ahí)
         OrderDetail savedOrder = orderService.saveOrder(order, transactionId);
@@ -76,28 +109,95 @@ public class OrderController {
         return ResponseEntity.ok(response);
     }
 
-    // Método para obtener todas las órdenes con un estado específico
-    @GetMapping("/status/{status}")
-    public ResponseEntity<?> getOrdersByStatus(@PathVariable String status) {
-        // Validación básica del estado
-        if (!status.matches("^(Pending|Completed|Cancelled)$")) {
+    // Endpoint para crear varias órdenes en una sola transacción
+    @PostMapping("/batch")
+    public ResponseEntity<OrderBatchResponse> createOrders(@RequestBody List<OrderPaymentDTO> orders) {
+        if (orders.isEmpty() || orders.size() > maxBatchSize) {
+            throw new IllegalArgumentException("El lote debe tener entre 1 y " + maxBatchSize + " órdenes");
+        }
+        String transactionId = transactionIdService.generateOrderTransactionId();
+
+        // Validar cada orden por separado: las inválidas se reportan y no impiden guardar las demás
+        OrderBatchItemResult[] results = new OrderBatchItemResult[orders.size()];
+        List<OrderDetail> validOrders = new ArrayList<>(orders.size());
+        List<Integer> validIndexes = new ArrayList<>(orders.size());
+        for (int index = 0; index < orders.size(); index++) {
+            OrderPaymentDTO orderPaymentDTO = orders.get(index);
+            if (orderPaymentDTO == null) {
+                results[index] = OrderBatchItemResult.invalid(index, List.of("La orden no puede ser nula"));
+                continue;
+            }
+            Set<ConstraintViolation<OrderPaymentDTO>> violations = validator.validate(orderPaymentDTO);
+            if (!violations.isEmpty()) {
+                results[index] = OrderBatchItemResult.invalid(index, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.toList()));
+                continue;
+            }
+            validOrders.add(createOrderFromDTO(orderPaymentDTO));
+            validIndexes.add(index);
+        }
+
+        List<OrderDetail> savedOrders = validOrders.isEmpty()
+            ? List.of() : orderService.saveOrders(validOrders, transactionId);
+        for (int i = 0; i < savedOrders.size(); i++) {
+            int index = validIndexes.get(i);
+            results[index] = OrderBatchItemResult.created(index, savedOrders.get(i).getOrderId());
+        }
+
+        return ResponseEntity.ok(new OrderBatchResponse(transactionId, Arrays.asList(results), savedOrders.size()));
+    }
+
+    // Método para consultar el estado de una orden recibida en modo write-behind
+    @GetMapping("/ingestion/{trackingId}")
+    public ResponseEntity<?> getIngestionStatus(@PathVariable String trackingId) {
+        String transactionId = transactionIdService.generateQueryTransactionId();
+        Optional<OrderIngestionService.IngestionState> state = orderIngestionService.getState(trackingId);
+        if (state.isEmpty()) {
             ErrorResponse errorResponse = new ErrorResponse(
-                400,
-                "INVALID_STATUS",
-                "El estado debe ser: Pending, Completed o Cancelled. Estado recibido: " + status,
+                404,
+                "TRACKING_NOT_FOUND",
+                "No existe una orden recibida con tracking ID: " + trackingId,
                 new Date(),
-                "/api/orders/status/" + status
+                "/api/orders/ingestion/" + trackingId
             );
-            return ResponseEntity.badRequest().body(errorResponse);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        }
+        OrderIngestionService.IngestionState current = state.get();
+        return ResponseEntity.ok(new OrderIngestionResponse(transactionId, "Estado de la orden recibida",
+            trackingId, current.status(), current.orderId(), current.error()));
+    }
+
+    // Método para obtener el estado de la cola de órdenes asíncronas
+    @GetMapping("/ingestion")
+    public ResponseEntity<Map<String, Object>> getIngestionStats() {
+        return ResponseEntity.ok(orderIngestionService.getStats());
+    }
+
+    // Método para obtener conteo, suma y promedio del total por estado y por cliente
+    @GetMapping("/stats")
+    public ResponseEntity<OrderStatsResponse> getOrderStats(@RequestParam(defaultValue = "20") int customerLimit) {
+        String transactionId = transactionIdService.generateQueryTransactionId();
+        return ResponseEntity.ok(orderService.getOrderStats(customerLimit, transactionId));
+    }
+
+    // Método para obtener el total de órdenes con un estado específico y la primera de ellas
+    @GetMapping("/status/{status}")
+    public ResponseEntity<?> getOrdersByStatus(@PathVariable String status) {
+        ResponseEntity<ErrorResponse> invalid = validateStatus(status);
+        if (invalid != null) {
+            return invalid;
         }
         
         // Generar ID de transacción
         String transactionId = transactionIdService.generateQueryTransactionId();
         
-        // Delegar al servicio (el logging se maneja ahí)
-        List<OrderDetail> orders = orderService.getOrdersByStatus(status, transactionId);
+        // Solo se cuenta y se carga la primera orden: el resto no se lee de la base de datos
+        long total = orderService.countOrdersByStatus(status, transactionId);
+        Optional<OrderDetail> sampleOrder = total == 0 ? Optional.empty() : orderService.findFirstOrderByStatus(status);
 
-        if (orders.isEmpty()) {
+        if (sampleOrder.isEmpty()) {
             ErrorResponse errorResponse = new ErrorResponse(
                 404,
                 "ORDERS_NOT_FOUND",
@@ -109,17 +209,106 @@ public class OrderController {
         }
 
         // Crear respuesta con la primera orden como ejemplo
-        OrderDetail sampleOrder = orders.get(0);
         OrderResponse response = new OrderResponse(
             transactionId,
             "SUCCESS",
-            "Órdenes obtenidas exitosamente. Total: " + orders.size(),
-            sampleOrder
+            "Órdenes obtenidas exitosamente. Total: " + total,
+            sampleOrder.get()
         );
         
         return ResponseEntity.ok(response);
     }
 
+    // Método para obtener una página de órdenes con un estado específico (keyset por orderId)
+    @GetMapping(value = "/status/{status}", params = "limit")
+    public ResponseEntity<?> getOrdersPageByStatus(@PathVariable String status,
+                                                   @RequestParam int limit,
+                                                   @RequestParam(defaultValue = "0") int afterOrderId) {
+        ResponseEntity<ErrorResponse> invalid = validateStatus(status);
+        if (invalid != null) {
+            return invalid;
+        }
+
+        String transactionId = transactionIdService.generateQueryTransactionId();
+        List<OrderDetail> orders = orderService.getOrdersPage(status, afterOrderId, limit, transactionId);
+        Integer nextAfterOrderId = orders.size() == limit ? orders.get(orders.size() - 1).getOrderId() : null;
+        return ResponseEntity.ok(new OrderPageResponse(transactionId, status, orders, limit, nextAfterOrderId));
+    }
+
+    // Método para enviar todas las órdenes con un estado específico como NDJSON (una orden por línea)
+    @GetMapping(value = "/status/{status}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamOrdersByStatus(@PathVariable String status,
+                                                                      @RequestParam(defaultValue = "0") int afterOrderId) {
+        ResponseEntity<ErrorResponse> invalid = validateStatus(status);
+        if (invalid != null) {
+            // El error se escribe como JSON aunque el cliente haya pedido NDJSON
+            return ResponseEntity.status(invalid.getStatusCode())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, invalid.getBody()));
+        }
+
+        String transactionId = transactionIdService.generateQueryTransactionId();
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                long[] written = {0};
+                orderService.streamOrdersByStatus(status, afterOrderId, order -> {
+                    try {
+                        writer.writeValue(generator, order);
+                        generator.writeRaw('\n');
+                        // Se envía al cliente por bloques en lugar de acumular toda la respuesta
+                        if (++written[0] % STREAM_FLUSH_EVERY == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, transactionId);
+            }
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .header("X-Transaction-Id", transactionId)
+            .body(body);
+    }
+
+    // Validación básica del estado; retorna null si es válido
+    private ResponseEntity<ErrorResponse> validateStatus(String status) {
+        if (!status.matches("^(Pending|Completed|Cancelled)$")) {
+            ErrorResponse errorResponse = new ErrorResponse(
+                400,
+                "INVALID_STATUS",
+                "El estado debe ser: Pending, Completed o Cancelled. Estado recibido: " + status,
+                new Date(),
+                "/api/orders/status/" + status
+            );
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(errorResponse);
+        }
+        return null;
+    }
+
+    // Método para crear la orden pendiente desde el DTO
+    private OrderDetail createOrderFromDTO(OrderPaymentDTO orderPaymentDTO) {
+        OrderDetail order = new OrderDetail();
+        order.setCustomer(createCustomerFromDTO(orderPaymentDTO.getCustomer()));
+        
+        // Calcular el total de la orden
+        double total = orderPaymentDTO.getProducts().stream()
+                .mapToDouble(ProductDTO::getPrice)
+                .sum();
+        
+        // Establecer información de productos
+        order.setProductCount(orderPaymentDTO.getProducts().size());
+        order.setProductSummary("Orden con " + orderPaymentDTO.getProducts().size() + " productos");
+        order.setTotal(total);
+        order.setStatus("Pending");
+        
+        // No establecer productos aquí para evitar problemas de persistencia
+        // Los productos se manejarán como información de referencia
+        return order;
+    }
+
     // Método para crear el cliente desde el DTO
     private OrderDetail.Customer createCustomerFromDTO(OrderPaymentDTO.CustomerDTO customerDTO) {
         OrderDetail.Customer customer = new OrderDetail.Customer();
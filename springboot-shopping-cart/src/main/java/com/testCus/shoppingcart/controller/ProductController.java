@@ -3,14 +3,27 @@
  */
 package com.testCus.shoppingcart.controller;
 
+import com.testCus.shoppingcart.catalog.CatalogSnapshot;
+import com.testCus.shoppingcart.catalog.ProductCatalog;
 import com.testCus.shoppingcart.dto.ProductDTO;
+import com.testCus.shoppingcart.dto.ProductLookupResult;
+import com.testCus.shoppingcart.dto.ProductPageResponse;
+import com.testCus.shoppingcart.dto.ProductSearchResponse;
+import com.testCus.shoppingcart.exception.UpstreamUnavailableException;
+import com.testCus.shoppingcart.service.ProductResponseCache;
+import com.testCus.shoppingcart.service.ProductSearchService;
 import com.testCus.shoppingcart.service.ProductService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Date;
+import java.util.Map;
 import com.testCus.shoppingcart.dto.ErrorResponse;
 import org.springframework.http.HttpStatus;
 
@@ -23,21 +36,40 @@ import org.springframework.http.HttpStatus;
 @CrossOrigin(origins = "*") // Permitir CORS para desarrollo
 public class ProductController {
 
+    private static final String GZIP_ETAG_SUFFIX = "-gz";
+
     private final ProductService productService;
+    private final ProductResponseCache responseCache;
+    private final ProductSearchService productSearchService;
+    private final ProductCatalog productCatalog;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductResponseCache responseCache,
+                             ProductSearchService productSearchService, ProductCatalog productCatalog) {
         this.productService = productService;
+        this.responseCache = responseCache;
+        this.productSearchService = productSearchService;
+        this.productCatalog = productCatalog;
     }
 
     /**
      * Obtiene productos desde FakeStore API
      * @param id ID del producto (opcional, si no se proporciona retorna todos)
-     * @return Lista de productos
+     * @return Lista de productos (304 sin cuerpo si el ETag enviado en If-None-Match sigue vigente)
      */
     @GetMapping
-    public ResponseEntity<?> getProducts(@RequestParam(required = false) Integer id) {
+    public ResponseEntity<?> getProducts(@RequestParam(required = false) Integer id, WebRequest webRequest) {
         try {
+            boolean gzip = responseCache.isEnabled() && acceptsGzip(webRequest);
+            if (notModified(webRequest, productService.getProductsETag(id), gzip)) {
+                return null;
+            }
+            if (responseCache.isEnabled()) {
+                ProductResponseCache.EncodedResponse encoded = responseCache.get(ProductResponseCache.PRODUCTS_VIEW_PREFIX + (id == null ? 0 : id), () -> productService.getProductDetails(id));
+                if (encoded != null) {
+                    return encoded.toResponse(gzip);
+                }
+            }
             List<ProductDTO> products = productService.getProductDetails(id);
             if (products == null || products.isEmpty()) {
                 ErrorResponse errorResponse = new ErrorResponse(
@@ -50,6 +82,8 @@ public class ProductController {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
             }
             return ResponseEntity.ok(products);
+        } catch (UpstreamUnavailableException e) {
+            return upstreamUnavailable(e, "/api/products" + (id != null ? "?id=" + id : ""));
         } catch (Exception e) {
             ErrorResponse errorResponse = new ErrorResponse(
                 404,
@@ -62,14 +96,85 @@ public class ProductController {
         }
     }
 
+    /**
+     * Obtiene el catálogo paginado
+     * @param limit Máximo de productos por página
+     * @param sort Orden: id, price, rating o title (prefijo "-" para descendente)
+     * @param cursor Valor de {@code nextCursor} de la página anterior
+     * @return Página de productos y cursor de la siguiente (null en la última página)
+     */
+    @GetMapping(params = {"limit", "!ids"})
+    public ResponseEntity<?> getProductsPage(@RequestParam int limit,
+                                             @RequestParam(required = false) String sort,
+                                             @RequestParam(required = false) String cursor) {
+        try {
+            ProductPageResponse page = productService.getProductsPage(limit, sort, cursor);
+            return ResponseEntity.ok(page);
+        } catch (UpstreamUnavailableException e) {
+            return upstreamUnavailable(e, "/api/products?limit=" + limit);
+        }
+    }
+
+    /**
+     * Obtiene varios productos en una sola llamada (por ejemplo, los artículos de un carrito)
+     * @param ids IDs separados por comas
+     * @return Un resultado por ID en el orden solicitado, con el error de los que no se encontraron
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<ProductLookupResult>> getProductsByIds(@RequestParam List<Integer> ids) {
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
+    }
+
+    /**
+     * Busca productos por texto en título y descripción, con filtros y facetas
+     * @param q Texto a buscar (sin distinguir mayúsculas ni acentos)
+     * @param category Categoría (opcional)
+     * @param minPrice Precio mínimo (opcional)
+     * @param maxPrice Precio máximo (opcional)
+     * @param minRating Valoración mínima (opcional)
+     * @param limit Máximo de productos a retornar
+     * @return Productos ordenados por relevancia y conteos por categoría, rango de precio y valoración
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchProducts(@RequestParam(required = false) String q,
+                                            @RequestParam(required = false) String category,
+                                            @RequestParam(required = false) Double minPrice,
+                                            @RequestParam(required = false) Double maxPrice,
+                                            @RequestParam(required = false) Double minRating,
+                                            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            ProductSearchResponse response = productSearchService.search(q, category, minPrice, maxPrice, minRating, limit);
+            return ResponseEntity.ok(response);
+        } catch (UpstreamUnavailableException e) {
+            return upstreamUnavailable(e, "/api/products/search");
+        }
+    }
+
     /**
      * Obtiene un producto específico por ID
      * @param id ID del producto
-     * @return Producto específico
+     * @return Producto específico (304 sin cuerpo si no cambió)
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> getProductById(@PathVariable Integer id) {
+    public ResponseEntity<?> getProductById(@PathVariable int id, WebRequest webRequest) {
         try {
+            // Camino directo: el índice por ID del snapshot, sin el proxy de caché de ProductService
+            // ni un Integer por petición
+            CatalogSnapshot snapshot = productCatalog.snapshot();
+            // Solo hay ETag si el producto está en el catálogo, y entonces se responde sin comprimir
+            if (notModified(webRequest, snapshot.getProductETag(id), false)) {
+                return null;
+            }
+            ProductDTO product = snapshot.findById(id);
+            if (product != null) {
+                return ResponseEntity.ok(product);
+            }
+            if (responseCache.isEnabled()) {
+                ProductResponseCache.EncodedResponse encoded = responseCache.get(ProductResponseCache.PRODUCT_VIEW_PREFIX + id, () -> productService.getProductDetails(id).get(0));
+                if (encoded != null) {
+                    return encoded.toResponse(acceptsGzip(webRequest));
+                }
+            }
             List<ProductDTO> products = productService.getProductDetails(id);
             if (products == null || products.isEmpty()) {
                 ErrorResponse errorResponse = new ErrorResponse(
@@ -82,6 +187,8 @@ public class ProductController {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
             }
             return ResponseEntity.ok(products.get(0));
+        } catch (UpstreamUnavailableException e) {
+            return upstreamUnavailable(e, "/api/products/" + id);
         } catch (Exception e) {
             ErrorResponse errorResponse = new ErrorResponse(
                 404,
@@ -96,11 +203,21 @@ public class ProductController {
 
     /**
      * Obtiene todas las categorías disponibles
-     * @return Lista de categorías únicas
+     * @return Lista de categorías únicas (304 sin cuerpo si no cambió)
      */
     @GetMapping("/categories")
-    public ResponseEntity<?> getCategories() {
+    public ResponseEntity<?> getCategories(WebRequest webRequest) {
         try {
+            boolean gzip = responseCache.isEnabled() && acceptsGzip(webRequest);
+            if (notModified(webRequest, productService.getCategoriesETag(), gzip)) {
+                return null;
+            }
+            if (responseCache.isEnabled()) {
+                ProductResponseCache.EncodedResponse encoded = responseCache.get(ProductResponseCache.CATEGORIES_VIEW, productService::getAllCategories);
+                if (encoded != null) {
+                    return encoded.toResponse(gzip);
+                }
+            }
             List<String> categories = productService.getAllCategories();
             if (categories == null || categories.isEmpty()) {
                 ErrorResponse errorResponse = new ErrorResponse(
@@ -113,6 +230,8 @@ public class ProductController {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
             }
             return ResponseEntity.ok(categories);
+        } catch (UpstreamUnavailableException e) {
+            return upstreamUnavailable(e, "/api/products/categories");
         } catch (Exception e) {
             ErrorResponse errorResponse = new ErrorResponse(
                 404,
@@ -128,11 +247,21 @@ public class ProductController {
     /**
      * Obtiene productos por categoría
      * @param category Categoría de productos
-     * @return Lista de productos de la categoría
+     * @return Lista de productos de la categoría (304 sin cuerpo si no cambió)
      */
     @GetMapping("/category/{category}")
-    public ResponseEntity<?> getProductsByCategory(@PathVariable String category) {
+    public ResponseEntity<?> getProductsByCategory(@PathVariable String category, WebRequest webRequest) {
         try {
+            boolean gzip = responseCache.isEnabled() && acceptsGzip(webRequest);
+            if (notModified(webRequest, productService.getProductsByCategoryETag(category), gzip)) {
+                return null;
+            }
+            if (responseCache.isEnabled()) {
+                ProductResponseCache.EncodedResponse encoded = responseCache.get(ProductResponseCache.CATEGORY_VIEW_PREFIX + category.toLowerCase(Locale.ROOT), () -> productService.getProductsByCategory(category));
+                if (encoded != null) {
+                    return encoded.toResponse(gzip);
+                }
+            }
             List<ProductDTO> products = productService.getProductsByCategory(category);
             if (products == null || products.isEmpty()) {
                 ErrorResponse errorResponse = new ErrorResponse(
@@ -145,6 +274,8 @@ public class ProductController {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
             }
             return ResponseEntity.ok(products);
+        } catch (UpstreamUnavailableException e) {
+            return upstreamUnavailable(e, "/api/products/category/" + category);
         } catch (Exception e) {
             ErrorResponse errorResponse = new ErrorResponse(
                 404,
@@ -157,6 +288,76 @@ public class ProductController {
         }
     }
 
+    /**
+     * Compara el ETag con If-None-Match. Si coincide deja la respuesta en 304 y el
+     * método debe retornar null para que no se serialice ningún cuerpo; si no, agrega
+     * la cabecera ETag a la respuesta 200.
+     * <p>
+     * La representación comprimida usa su propio ETag (sufijo {@code -gz}). Este es el único
+     * lugar donde se agrega {@code Vary: Accept-Encoding}: se hace antes de comparar para que
+     * acompañe al 304, a los bytes de la caché codificada y a las respuestas serializadas.
+     * @param gzip true si la respuesta 200 se enviará comprimida
+     */
+    private boolean notModified(WebRequest webRequest, String eTag, boolean gzip) {
+        if (webRequest instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+            servletRequest.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (eTag == null) {
+            return false;
+        }
+        String variant = gzip ? eTag.substring(0, eTag.length() - 1) + GZIP_ETAG_SUFFIX + "\"" : eTag;
+        return webRequest.checkNotModified(variant);
+    }
+
+    /**
+     * Interpreta Accept-Encoding con sus valores q: {@code gzip;q=0} significa que no se acepta,
+     * y {@code *} aplica solo si gzip no aparece explícitamente
+     * @return true si el cliente acepta respuestas comprimidas con gzip
+     */
+    private boolean acceptsGzip(WebRequest webRequest) {
+        String acceptEncoding = webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzipQuality = -1;
+        double wildcardQuality = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzipQuality = Math.max(gzipQuality, quality);
+            } else if (name.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+        return (gzipQuality >= 0 ? gzipQuality : wildcardQuality) > 0;
+    }
+
+    /**
+     * Respuesta cuando FakeStore no está disponible y no hay datos en memoria para responder
+     */
+    private ResponseEntity<ErrorResponse> upstreamUnavailable(UpstreamUnavailableException e, String path) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            503,
+            "UPSTREAM_UNAVAILABLE",
+            e.getMessage(),
+            new Date(),
+            path
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+    }
+
     /**
      * Limpia el caché de productos
      * @return Respuesta de confirmación
@@ -170,5 +371,56 @@ public class ProductController {
             return ResponseEntity.badRequest().body("Error clearing cache: " + e.getMessage());
         }
     }
+
+    /**
+     * Actualiza un producto desde FakeStore sin vaciar el resto de los cachés
+     * @param id ID del producto
+     * @return Versión del catálogo antes y después, y si el producto cambió
+     */
+    @PostMapping("/cache/invalidate/{id}")
+    public ResponseEntity<?> invalidateProduct(@PathVariable int id) {
+        try {
+            return ResponseEntity.ok(productService.invalidateProduct(id));
+        } catch (UpstreamUnavailableException e) {
+            return upstreamUnavailable(e, "/api/products/cache/invalidate/" + id);
+        }
+    }
+
+    /**
+     * Actualiza los productos de una categoría desde FakeStore sin vaciar el resto de los cachés
+     * @param category Categoría
+     * @return Versión del catálogo antes y después, y si la categoría cambió
+     */
+    @PostMapping("/cache/invalidate/category/{category}")
+    public ResponseEntity<?> invalidateCategory(@PathVariable String category) {
+        try {
+            return ResponseEntity.ok(productService.invalidateCategory(category));
+        } catch (UpstreamUnavailableException e) {
+            return upstreamUnavailable(e, "/api/products/cache/invalidate/category/" + category);
+        }
+    }
+
+    /**
+     * Vuelve a descargar el catálogo sin vaciar los cachés: se sigue respondiendo con el
+     * snapshot vigente hasta que el nuevo está completo
+     * @return Versión del catálogo antes y después, y si el contenido cambió
+     */
+    @PostMapping("/cache/refresh")
+    public ResponseEntity<?> refreshCache() {
+        try {
+            return ResponseEntity.ok(productService.refreshInPlace());
+        } catch (UpstreamUnavailableException e) {
+            return upstreamUnavailable(e, "/api/products/cache/refresh");
+        }
+    }
+
+    /**
+     * Obtiene las estadísticas del caché de productos
+     * @return Contadores de llamadas hacia FakeStore y peticiones coalescidas
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStatistics() {
+        return ResponseEntity.ok(productService.getCacheStatistics());
+    }
 }
 
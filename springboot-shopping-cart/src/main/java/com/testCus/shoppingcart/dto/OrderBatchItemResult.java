@@ -0,0 +1,80 @@
+/*
+ * Resultado individual de una creación de órdenes en lote
+ */
+package com.testCus.shoppingcart.dto;
+
+import java.util.List;
+
+/**
+ * Resultado por posición en el lote: la orden creada o los errores de validación
+ */
+public class OrderBatchItemResult {
+    private int index;
+    private String status;
+    private Integer orderId;
+    private String orderNumber;
+    private List<String> errors;
+
+    public OrderBatchItemResult() {
+    }
+
+    public OrderBatchItemResult(int index, String status, Integer orderId, List<String> errors) {
+        this.index = index;
+        this.status = status;
+        this.orderId = orderId;
+        this.orderNumber = orderId != null ? "ORD-" + orderId : null;
+        this.errors = errors;
+    }
+
+    public static OrderBatchItemResult created(int index, int orderId) {
+        return new OrderBatchItemResult(index, "CREATED", orderId, null);
+    }
+
+    public static OrderBatchItemResult invalid(int index, List<String> errors) {
+        return new OrderBatchItemResult(index, "INVALID", null, errors);
+    }
+
+    // Getters y Setters
+    /**
+     * @return posición de la orden en la lista recibida
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Integer orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getOrderNumber() {
+        return orderNumber;
+    }
+
+    public void setOrderNumber(String orderNumber) {
+        this.orderNumber = orderNumber;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+}
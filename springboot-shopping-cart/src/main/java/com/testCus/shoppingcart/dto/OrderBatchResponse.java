@@ -0,0 +1,69 @@
+/*
+ * DTO para respuestas de creación de órdenes en lote
+ */
+package com.testCus.shoppingcart.dto;
+
+import java.util.List;
+
+/**
+ * Resumen del lote y resultado de cada orden en el mismo orden en que se recibieron
+ */
+public class OrderBatchResponse extends TransactionResponse {
+    private int received;
+    private int created;
+    private int rejected;
+    private List<OrderBatchItemResult> results;
+
+    public OrderBatchResponse() {
+        super();
+    }
+
+    public OrderBatchResponse(String transactionId, List<OrderBatchItemResult> results, int created) {
+        super(transactionId, batchStatus(created, results.size()),
+            "Órdenes creadas: " + created + " de " + results.size());
+        this.received = results.size();
+        this.created = created;
+        this.rejected = results.size() - created;
+        this.results = results;
+    }
+
+    private static String batchStatus(int created, int received) {
+        if (created == received) {
+            return "SUCCESS";
+        }
+        return created == 0 ? "REJECTED" : "PARTIAL_SUCCESS";
+    }
+
+    // Getters y Setters
+    public int getReceived() {
+        return received;
+    }
+
+    public void setReceived(int received) {
+        this.received = received;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<OrderBatchItemResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<OrderBatchItemResult> results) {
+        this.results = results;
+    }
+}
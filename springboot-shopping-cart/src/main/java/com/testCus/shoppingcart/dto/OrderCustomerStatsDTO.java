@@ -0,0 +1,58 @@
+/*
+ * Agregado de órdenes por cliente
+ */
+package com.testCus.shoppingcart.dto;
+
+/**
+ * Conteo, suma y promedio del total de las órdenes de un mismo cliente.
+ * Se construye directamente en la consulta JPQL (SELECT new ...), sin cargar entidades.
+ */
+public class OrderCustomerStatsDTO {
+    private Integer customerId;
+    private long count;
+    private double totalSum;
+    private double totalAverage;
+
+    public OrderCustomerStatsDTO() {
+    }
+
+    public OrderCustomerStatsDTO(Integer customerId, Long count, Double totalSum, Double totalAverage) {
+        this.customerId = customerId;
+        this.count = count != null ? count : 0;
+        this.totalSum = totalSum != null ? totalSum : 0;
+        this.totalAverage = totalAverage != null ? totalAverage : 0;
+    }
+
+    // Getters y Setters
+    public Integer getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Integer customerId) {
+        this.customerId = customerId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getTotalSum() {
+        return totalSum;
+    }
+
+    public void setTotalSum(double totalSum) {
+        this.totalSum = totalSum;
+    }
+
+    public double getTotalAverage() {
+        return totalAverage;
+    }
+
+    public void setTotalAverage(double totalAverage) {
+        this.totalAverage = totalAverage;
+    }
+}
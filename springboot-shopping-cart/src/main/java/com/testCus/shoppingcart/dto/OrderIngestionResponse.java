@@ -0,0 +1,71 @@
+/*
+ * DTO para respuestas de la recepción asíncrona de órdenes
+ */
+package com.testCus.shoppingcart.dto;
+
+/**
+ * Estado de una orden recibida en modo write-behind: QUEUED mientras espera en la cola,
+ * PERSISTED con su ID cuando se guardó o FAILED con el error
+ */
+public class OrderIngestionResponse extends TransactionResponse {
+    private String trackingId;
+    private String ingestionStatus;
+    private Integer orderId;
+    private String orderNumber;
+    private String error;
+
+    public OrderIngestionResponse() {
+        super();
+    }
+
+    public OrderIngestionResponse(String transactionId, String message, String trackingId, String ingestionStatus,
+                                  Integer orderId, String error) {
+        super(transactionId, "SUCCESS", message);
+        this.trackingId = trackingId;
+        this.ingestionStatus = ingestionStatus;
+        this.orderId = orderId;
+        this.orderNumber = orderId != null ? "ORD-" + orderId : null;
+        this.error = error;
+    }
+
+    // Getters y Setters
+    public String getTrackingId() {
+        return trackingId;
+    }
+
+    public void setTrackingId(String trackingId) {
+        this.trackingId = trackingId;
+    }
+
+    public String getIngestionStatus() {
+        return ingestionStatus;
+    }
+
+    public void setIngestionStatus(String ingestionStatus) {
+        this.ingestionStatus = ingestionStatus;
+    }
+
+    public Integer getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Integer orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getOrderNumber() {
+        return orderNumber;
+    }
+
+    public void setOrderNumber(String orderNumber) {
+        this.orderNumber = orderNumber;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
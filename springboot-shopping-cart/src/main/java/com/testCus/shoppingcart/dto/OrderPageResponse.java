@@ -0,0 +1,67 @@
+/*
+ * DTO para respuestas paginadas de órdenes
+ */
+package com.testCus.shoppingcart.dto;
+
+import com.testCus.shoppingcart.model.OrderDetail;
+
+import java.util.List;
+
+/**
+ * Página de órdenes por estado con el ID para solicitar la siguiente
+ */
+public class OrderPageResponse extends TransactionResponse {
+    private String orderStatus;
+    private List<OrderDetail> orders;
+    private int limit;
+    private Integer nextAfterOrderId;
+
+    public OrderPageResponse() {
+        super();
+    }
+
+    public OrderPageResponse(String transactionId, String orderStatus, List<OrderDetail> orders, int limit,
+                             Integer nextAfterOrderId) {
+        super(transactionId, "SUCCESS", "Órdenes obtenidas exitosamente. En la página: " + orders.size());
+        this.orderStatus = orderStatus;
+        this.orders = orders;
+        this.limit = limit;
+        this.nextAfterOrderId = nextAfterOrderId;
+    }
+
+    // Getters y Setters
+    public String getOrderStatus() {
+        return orderStatus;
+    }
+
+    public void setOrderStatus(String orderStatus) {
+        this.orderStatus = orderStatus;
+    }
+
+    public List<OrderDetail> getOrders() {
+        return orders;
+    }
+
+    public void setOrders(List<OrderDetail> orders) {
+        this.orders = orders;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * @return valor de {@code afterOrderId} para la página siguiente, o null si es la última
+     */
+    public Integer getNextAfterOrderId() {
+        return nextAfterOrderId;
+    }
+
+    public void setNextAfterOrderId(Integer nextAfterOrderId) {
+        this.nextAfterOrderId = nextAfterOrderId;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * DTO para las estadísticas de órdenes
+ */
+package com.testCus.shoppingcart.dto;
+
+import java.util.List;
+
+/**
+ * Conteo, suma y promedio del total de las órdenes: global, por estado y
+ * de los clientes con mayor monto acumulado
+ */
+public class OrderStatsResponse extends TransactionResponse {
+    private long count;
+    private double totalSum;
+    private double totalAverage;
+    private List<OrderStatusStatsDTO> byStatus;
+    private int customerLimit;
+    private List<OrderCustomerStatsDTO> byCustomer;
+
+    public OrderStatsResponse() {
+        super();
+    }
+
+    /**
+     * Los valores globales se obtienen de los agregados por estado, que cubren todas las órdenes
+     */
+    public OrderStatsResponse(String transactionId, List<OrderStatusStatsDTO> byStatus, int customerLimit,
+                              List<OrderCustomerStatsDTO> byCustomer) {
+        super(transactionId, "SUCCESS", "Estadísticas de órdenes obtenidas exitosamente");
+        for (OrderStatusStatsDTO stats : byStatus) {
+            this.count += stats.getCount();
+            this.totalSum += stats.getTotalSum();
+        }
+        this.totalAverage = count > 0 ? totalSum / count : 0;
+        this.byStatus = byStatus;
+        this.customerLimit = customerLimit;
+        this.byCustomer = byCustomer;
+    }
+
+    // Getters y Setters
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getTotalSum() {
+        return totalSum;
+    }
+
+    public void setTotalSum(double totalSum) {
+        this.totalSum = totalSum;
+    }
+
+    public double getTotalAverage() {
+        return totalAverage;
+    }
+
+    public void setTotalAverage(double totalAverage) {
+        this.totalAverage = totalAverage;
+    }
+
+    public List<OrderStatusStatsDTO> getByStatus() {
+        return byStatus;
+    }
+
+    public void setByStatus(List<OrderStatusStatsDTO> byStatus) {
+        this.byStatus = byStatus;
+    }
+
+    public int getCustomerLimit() {
+        return customerLimit;
+    }
+
+    public void setCustomerLimit(int customerLimit) {
+        this.customerLimit = customerLimit;
+    }
+
+    /**
+     * @return clientes ordenados por monto acumulado descendente, hasta {@code customerLimit}
+     */
+    public List<OrderCustomerStatsDTO> getByCustomer() {
+        return byCustomer;
+    }
+
+    public void setByCustomer(List<OrderCustomerStatsDTO> byCustomer) {
+        this.byCustomer = byCustomer;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Agregado de órdenes por estado
+ */
+package com.testCus.shoppingcart.dto;
+
+/**
+ * Conteo, suma y promedio del total de las órdenes con un mismo estado.
+ * Se construye directamente en la consulta JPQL (SELECT new ...), sin cargar entidades.
+ */
+public class OrderStatusStatsDTO {
+    private String status;
+    private long count;
+    private double totalSum;
+    private double totalAverage;
+
+    public OrderStatusStatsDTO() {
+    }
+
+    public OrderStatusStatsDTO(String status, Long count, Double totalSum, Double totalAverage) {
+        this.status = status;
+        this.count = count != null ? count : 0;
+        this.totalSum = totalSum != null ? totalSum : 0;
+        this.totalAverage = totalAverage != null ? totalAverage : 0;
+    }
+
+    // Getters y Setters
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getTotalSum() {
+        return totalSum;
+    }
+
+    public void setTotalSum(double totalSum) {
+        this.totalSum = totalSum;
+    }
+
+    public double getTotalAverage() {
+        return totalAverage;
+    }
+
+    public void setTotalAverage(double totalAverage) {
+        this.totalAverage = totalAverage;
+    }
+}
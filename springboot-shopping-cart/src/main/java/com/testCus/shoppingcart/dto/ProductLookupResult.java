@@ -0,0 +1,69 @@
+/*
+ * Resultado individual de una consulta de varios productos
+ */
+package com.testCus.shoppingcart.dto;
+
+/**
+ * Resultado por ID en la consulta de varios productos: el producto o el error correspondiente
+ */
+public class ProductLookupResult {
+    private int id;
+    private String status;
+    private ProductDTO product;
+    private String error;
+
+    public ProductLookupResult() {
+    }
+
+    public ProductLookupResult(int id, String status, ProductDTO product, String error) {
+        this.id = id;
+        this.status = status;
+        this.product = product;
+        this.error = error;
+    }
+
+    public static ProductLookupResult found(int id, ProductDTO product) {
+        return new ProductLookupResult(id, "FOUND", product, null);
+    }
+
+    public static ProductLookupResult notFound(int id, String error) {
+        return new ProductLookupResult(id, "NOT_FOUND", null, error);
+    }
+
+    public static ProductLookupResult unavailable(int id, String error) {
+        return new ProductLookupResult(id, "UNAVAILABLE", null, error);
+    }
+
+    // Getters y Setters
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public ProductDTO getProduct() {
+        return product;
+    }
+
+    public void setProduct(ProductDTO product) {
+        this.product = product;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * DTO para respuestas paginadas de productos
+ */
+package com.testCus.shoppingcart.dto;
+
+import java.util.List;
+
+/**
+ * Página de productos con el cursor para solicitar la siguiente
+ */
+public class ProductPageResponse {
+    private List<ProductDTO> products;
+    private int limit;
+    private String sort;
+    private String nextCursor;
+    private int totalProducts;
+
+    public ProductPageResponse() {
+    }
+
+    public ProductPageResponse(List<ProductDTO> products, int limit, String sort, String nextCursor, int totalProducts) {
+        this.products = products;
+        this.limit = limit;
+        this.sort = sort;
+        this.nextCursor = nextCursor;
+        this.totalProducts = totalProducts;
+    }
+
+    // Getters y Setters
+    public List<ProductDTO> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<ProductDTO> products) {
+        this.products = products;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+
+    /**
+     * @return cursor de la siguiente página o null si esta es la última
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public int getTotalProducts() {
+        return totalProducts;
+    }
+
+    public void setTotalProducts(int totalProducts) {
+        this.totalProducts = totalProducts;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * DTO para respuestas de búsqueda de productos
+ */
+package com.testCus.shoppingcart.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado de una búsqueda con los productos encontrados y los conteos por faceta
+ */
+public class ProductSearchResponse {
+    private String query;
+    private int totalResults;
+    private List<ProductDTO> products;
+    private Map<String, Integer> categoryFacets;
+    private Map<String, Integer> priceFacets;
+    private Map<String, Integer> ratingFacets;
+
+    public ProductSearchResponse() {
+    }
+
+    public ProductSearchResponse(String query, int totalResults, List<ProductDTO> products,
+                                 Map<String, Integer> categoryFacets, Map<String, Integer> priceFacets,
+                                 Map<String, Integer> ratingFacets) {
+        this.query = query;
+        this.totalResults = totalResults;
+        this.products = products;
+        this.categoryFacets = categoryFacets;
+        this.priceFacets = priceFacets;
+        this.ratingFacets = ratingFacets;
+    }
+
+    // Getters y Setters
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    public int getTotalResults() {
+        return totalResults;
+    }
+
+    public void setTotalResults(int totalResults) {
+        this.totalResults = totalResults;
+    }
+
+    public List<ProductDTO> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<ProductDTO> products) {
+        this.products = products;
+    }
+
+    public Map<String, Integer> getCategoryFacets() {
+        return categoryFacets;
+    }
+
+    public void setCategoryFacets(Map<String, Integer> categoryFacets) {
+        this.categoryFacets = categoryFacets;
+    }
+
+    public Map<String, Integer> getPriceFacets() {
+        return priceFacets;
+    }
+
+    public void setPriceFacets(Map<String, Integer> priceFacets) {
+        this.priceFacets = priceFacets;
+    }
+
+    public Map<String, Integer> getRatingFacets() {
+        return ratingFacets;
+    }
+
+    public void setRatingFacets(Map<String, Integer> ratingFacets) {
+        this.ratingFacets = ratingFacets;
+    }
+}
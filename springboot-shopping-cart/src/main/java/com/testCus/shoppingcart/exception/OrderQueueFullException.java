@@ -0,0 +1,24 @@
+/*
+ * Excepción para cuando la cola de órdenes asíncronas no acepta más órdenes
+ */
+package com.testCus.shoppingcart.exception;
+
+import java.time.Duration;
+
+/**
+ * Se lanza cuando la cola de recepción asíncrona está llena o la aplicación se está
+ * deteniendo; el cliente debe reintentar después de {@link #getRetryAfter()}
+ */
+public class OrderQueueFullException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public OrderQueueFullException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,19 @@
+/*
+ * Excepción para cuando la API de productos no está disponible
+ */
+package com.testCus.shoppingcart.exception;
+
+/**
+ * Se lanza cuando el circuit breaker o el bulkhead rechazan la llamada hacia FakeStore,
+ * o cuando FakeStore falla por un error de red o del servidor
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    public UpstreamUnavailableException(String message) {
+        super(message);
+    }
+
+    public UpstreamUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
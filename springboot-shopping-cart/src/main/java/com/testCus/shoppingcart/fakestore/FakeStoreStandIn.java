@@ -0,0 +1,245 @@
+/*
+ * Sustituto local de FakeStore API para pruebas de integración y de carga
+ */
+package com.testCus.shoppingcart.fakestore;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.testCus.shoppingcart.dto.ProductDTO;
+import com.testCus.shoppingcart.dto.Rating;
+import com.testCus.shoppingcart.util.LogUtil;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Servidor HTTP embebible que responde como FakeStore en {@code /products},
+ * {@code /products/{id}} y {@code /products/category/{category}} con un catálogo
+ * sintético del tamaño configurado. Permite simular latencia, errores y respuestas
+ * lentas (slow-drip) para probar el proxy sin depender de fakestoreapi.com.
+ */
+public class FakeStoreStandIn {
+
+    private static final Logger logger = LogUtil.getLogger(FakeStoreStandIn.class);
+    private static final String OPERATION_STAND_IN = "FAKESTORE_STAND_IN";
+    private static final String PRODUCTS_PATH = "/products";
+    private static final String CATEGORY_PATH = PRODUCTS_PATH + "/category/";
+
+    private final FakeStoreStandInProperties properties;
+    private final ObjectMapper objectMapper;
+    private final List<ProductDTO> products;
+    private final byte[] catalogJson;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+    private final LongAdder slowDrips = new LongAdder();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public FakeStoreStandIn(FakeStoreStandInProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.products = generateCatalog(properties.getProducts(), properties.getCategories(), properties.getSeed());
+        this.catalogJson = toJson(products);
+    }
+
+    /**
+     * Inicia el servidor en {@code fakestore.stand-in.port} (0 para un puerto libre)
+     */
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+        server = HttpServer.create(new InetSocketAddress("localhost", properties.getPort()), 0);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext(PRODUCTS_PATH, this::handle);
+        server.start();
+        LogUtil.logInfo(logger, OPERATION_STAND_IN, "STB-" + System.currentTimeMillis(),
+            String.format("Sustituto de FakeStore en %s con %d productos (latencia %s, errores %.0f%%, slow-drip %.0f%%)",
+                getBaseUrl(), products.size(), properties.getLatency().getDistribution(),
+                properties.getErrorRate() * 100, properties.getSlowDrip().getRate() * 100));
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.close();
+            server = null;
+        }
+    }
+
+    /**
+     * @return URL para {@code product.api.base-url}
+     */
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * @return peticiones atendidas y fallas simuladas
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("products", products.size());
+        stats.put("requests", requests.sum());
+        stats.put("injectedErrors", injectedErrors.sum());
+        stats.put("slowDrips", slowDrips.sum());
+        return stats;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.increment();
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, new byte[0], false);
+                return;
+            }
+
+            sleep(sampleLatencyMillis());
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (random.nextDouble() < properties.getErrorRate()) {
+                injectedErrors.increment();
+                send(exchange, properties.getErrorStatus(),
+                    "{\"error\":\"Falla simulada\"}".getBytes(StandardCharsets.UTF_8), false);
+                return;
+            }
+
+            byte[] body = route(exchange.getRequestURI().getRawPath());
+            if (body == null) {
+                send(exchange, 404, new byte[0], false);
+                return;
+            }
+            boolean slowDrip = random.nextDouble() < properties.getSlowDrip().getRate();
+            if (slowDrip) {
+                slowDrips.increment();
+            }
+            send(exchange, 200, body, slowDrip);
+        }
+    }
+
+    /**
+     * @return cuerpo de la respuesta o null si la ruta no existe
+     */
+    private byte[] route(String path) {
+        if (path.equals(PRODUCTS_PATH) || path.equals(PRODUCTS_PATH + "/")) {
+            return catalogJson;
+        }
+        if (path.startsWith(CATEGORY_PATH)) {
+            String category = URLDecoder.decode(path.substring(CATEGORY_PATH.length()), StandardCharsets.UTF_8);
+            List<ProductDTO> matches = new ArrayList<>();
+            for (ProductDTO product : products) {
+                if (product.getCategory().equalsIgnoreCase(category)) {
+                    matches.add(product);
+                }
+            }
+            return toJson(matches);
+        }
+        String idPart = path.substring(PRODUCTS_PATH.length() + 1);
+        try {
+            int id = Integer.parseInt(idPart);
+            // Igual que FakeStore: un ID inexistente responde 200 sin cuerpo
+            return id >= 1 && id <= products.size() ? toJson(products.get(id - 1)) : new byte[0];
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void send(HttpExchange exchange, int status, byte[] body, boolean slowDrip) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        if (!slowDrip) {
+            exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+            return;
+        }
+
+        // Respuesta en partes con pausas: simula una red o un upstream que entrega lento
+        FakeStoreStandInProperties.SlowDrip drip = properties.getSlowDrip();
+        int chunkBytes = Math.max(1, drip.getChunkBytes());
+        exchange.sendResponseHeaders(status, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int offset = 0; offset < body.length; offset += chunkBytes) {
+                out.write(body, offset, Math.min(chunkBytes, body.length - offset));
+                out.flush();
+                sleep(drip.getChunkDelay().toMillis());
+            }
+        }
+    }
+
+    private long sampleLatencyMillis() {
+        FakeStoreStandInProperties.Latency latency = properties.getLatency();
+        long min = latency.getMin().toMillis();
+        long max = Math.max(min, latency.getMax().toMillis());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (latency.getDistribution()) {
+            case NONE -> 0;
+            case FIXED -> latency.getMean().toMillis();
+            case UNIFORM -> min + (long) (random.nextDouble() * (max - min));
+            case EXPONENTIAL -> Math.min(max,
+                min + (long) (-latency.getMean().toMillis() * Math.log(1 - random.nextDouble())));
+        };
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el catálogo sintético", e);
+        }
+    }
+
+    /**
+     * Genera un catálogo determinista para una misma semilla
+     */
+    static List<ProductDTO> generateCatalog(int size, List<String> categories, long seed) {
+        Random random = new Random(seed);
+        List<ProductDTO> catalog = new ArrayList<>(size);
+        for (int id = 1; id <= size; id++) {
+            String category = categories.get((id - 1) % categories.size());
+            ProductDTO product = new ProductDTO();
+            product.setId(id);
+            product.setTitle(String.format(Locale.ROOT, "Producto sintético %d de %s", id, category));
+            product.setPrice(Math.round((1 + random.nextDouble() * 999) * 100) / 100.0);
+            product.setDescription(String.format(Locale.ROOT,
+                "Descripción del artículo %d para pruebas de carga en la categoría %s", id, category));
+            product.setCategory(category);
+            product.setImage("https://fakestore.local/img/" + id + ".jpg");
+            Rating rating = new Rating();
+            rating.setRate(Math.round(random.nextDouble() * 50) / 10.0);
+            rating.setCount(random.nextInt(1000));
+            product.setRating(rating);
+            catalog.add(product);
+        }
+        return catalog;
+    }
+}
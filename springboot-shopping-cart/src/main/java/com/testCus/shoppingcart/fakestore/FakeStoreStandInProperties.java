@@ -0,0 +1,182 @@
+/*
+ * Propiedades del sustituto local de FakeStore
+ */
+package com.testCus.shoppingcart.fakestore;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Catálogo sintético, latencia y fallas simuladas del sustituto local (prefijo {@code fakestore.stand-in})
+ */
+@ConfigurationProperties(prefix = "fakestore.stand-in")
+public class FakeStoreStandInProperties {
+
+    private boolean enabled = false;
+    // 0: puerto libre elegido al iniciar; el proxy toma la URL del sustituto ya iniciado
+    private int port = 0;
+    private int products = 20;
+    private List<String> categories = List.of("electronics", "jewelery", "men's clothing", "women's clothing");
+    private long seed = 42;
+    private Latency latency = new Latency();
+    private double errorRate = 0.0;
+    private int errorStatus = 503;
+    private SlowDrip slowDrip = new SlowDrip();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public int getProducts() {
+        return products;
+    }
+
+    public void setProducts(int products) {
+        this.products = products;
+    }
+
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<String> categories) {
+        this.categories = categories;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public Latency getLatency() {
+        return latency;
+    }
+
+    public void setLatency(Latency latency) {
+        this.latency = latency;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public int getErrorStatus() {
+        return errorStatus;
+    }
+
+    public void setErrorStatus(int errorStatus) {
+        this.errorStatus = errorStatus;
+    }
+
+    public SlowDrip getSlowDrip() {
+        return slowDrip;
+    }
+
+    public void setSlowDrip(SlowDrip slowDrip) {
+        this.slowDrip = slowDrip;
+    }
+
+    /**
+     * Distribución de la latencia agregada antes de cada respuesta
+     */
+    public static class Latency {
+        private LatencyDistribution distribution = LatencyDistribution.NONE;
+        private Duration min = Duration.ZERO;
+        private Duration mean = Duration.ofMillis(50);
+        private Duration max = Duration.ofSeconds(2);
+
+        public LatencyDistribution getDistribution() {
+            return distribution;
+        }
+
+        public void setDistribution(LatencyDistribution distribution) {
+            this.distribution = distribution;
+        }
+
+        public Duration getMin() {
+            return min;
+        }
+
+        public void setMin(Duration min) {
+            this.min = min;
+        }
+
+        public Duration getMean() {
+            return mean;
+        }
+
+        public void setMean(Duration mean) {
+            this.mean = mean;
+        }
+
+        public Duration getMax() {
+            return max;
+        }
+
+        public void setMax(Duration max) {
+            this.max = max;
+        }
+    }
+
+    /**
+     * Respuestas que se envían por partes con pausas entre cada una
+     */
+    public static class SlowDrip {
+        private double rate = 0.0;
+        private int chunkBytes = 256;
+        private Duration chunkDelay = Duration.ofMillis(100);
+
+        public double getRate() {
+            return rate;
+        }
+
+        public void setRate(double rate) {
+            this.rate = rate;
+        }
+
+        public int getChunkBytes() {
+            return chunkBytes;
+        }
+
+        public void setChunkBytes(int chunkBytes) {
+            this.chunkBytes = chunkBytes;
+        }
+
+        public Duration getChunkDelay() {
+            return chunkDelay;
+        }
+
+        public void setChunkDelay(Duration chunkDelay) {
+            this.chunkDelay = chunkDelay;
+        }
+    }
+
+    /**
+     * FIXED usa siempre {@code mean}; UNIFORM sortea entre {@code min} y {@code max};
+     * EXPONENTIAL agrega a {@code min} una espera exponencial de media {@code mean}, acotada por {@code max}
+     */
+    public enum LatencyDistribution {
+        NONE, FIXED, UNIFORM, EXPONENTIAL
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Interceptor que marca las respuestas servidas con un catálogo desactualizado
+ */
+package com.testCus.shoppingcart.interceptor;
+
+import com.testCus.shoppingcart.catalog.ProductCatalog;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Cuando FakeStore no está disponible se sigue respondiendo con el último catálogo
+ * conocido; este interceptor lo indica al cliente con cabeceras de antigüedad.
+ */
+@Component
+public class CatalogStalenessInterceptor implements HandlerInterceptor {
+
+    public static final String STALE_HEADER = "X-Catalog-Stale";
+    public static final String AGE_HEADER = "X-Catalog-Age";
+
+    private final ProductCatalog productCatalog;
+
+    @Autowired
+    public CatalogStalenessInterceptor(ProductCatalog productCatalog) {
+        this.productCatalog = productCatalog;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (productCatalog.isStale()) {
+            response.setHeader(STALE_HEADER, "true");
+            response.setHeader(AGE_HEADER, String.valueOf(productCatalog.getAge().toSeconds()));
+            response.setHeader(HttpHeaders.WARNING, "110 - \"Response is Stale\"");
+        }
+        return true;
+    }
+}
@@ -5,6 +5,7 @@
 package com.testCus.shoppingcart.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
 import java.util.List;
 
 /**
@@ -12,10 +13,16 @@ import java.util.List;
  * @author Mohamed
  */
 @Entity
-@Table(name = "order_details")
+@Table(name = "order_details", indexes = {
+    // Orden pendiente de un cliente (findByCustomerIdAndStatus)
+    @Index(name = "idx_order_details_customer_status", columnList = "customer_id, status"),
+    // Conteo, paginado y recorrido por estado en orden de ID
+    @Index(name = "idx_order_details_status_order", columnList = "status, order_id")
+})
 public class OrderDetail {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = OrderIdGenerator.SEQUENCE_NAME)
+    @GenericGenerator(name = OrderIdGenerator.SEQUENCE_NAME, type = OrderIdGenerator.class)
     private int orderId;
     
     @Embedded
@@ -0,0 +1,46 @@
+/*
+ * Generador de IDs de órdenes basado en secuencia
+ */
+package com.testCus.shoppingcart.model;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Genera los IDs de {@link OrderDetail} desde la secuencia {@value #SEQUENCE_NAME}.
+ * Cada llamada a la secuencia reserva un bloque de IDs que se asignan en memoria
+ * (optimizador pooled o pooled-lo), por lo que los INSERT no necesitan ida y vuelta
+ * para conocer el ID y Hibernate puede agruparlos en lotes JDBC.
+ * El tamaño del bloque y el optimizador se leen de la configuración de Hibernate
+ * (ver {@code JpaConfig}); el tamaño debe coincidir con el INCREMENT BY de la secuencia.
+ */
+public class OrderIdGenerator extends SequenceStyleGenerator {
+
+    public static final String SEQUENCE_NAME = "order_details_seq";
+    public static final String ALLOCATION_SIZE_SETTING = "shoppingcart.orders.id.allocation_size";
+    public static final String OPTIMIZER_SETTING = "shoppingcart.orders.id.optimizer";
+
+    static final int DEFAULT_ALLOCATION_SIZE = 50;
+    static final String DEFAULT_OPTIMIZER = "pooled-lo";
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        Map<String, Object> settings = serviceRegistry.requireService(ConfigurationService.class).getSettings();
+        int allocationSize = Integer.parseInt(String.valueOf(
+            settings.getOrDefault(ALLOCATION_SIZE_SETTING, DEFAULT_ALLOCATION_SIZE)));
+        if (allocationSize < 1) {
+            throw new MappingException("El tamaño de asignación de IDs de órdenes debe ser positivo: " + allocationSize);
+        }
+        parameters.put(SEQUENCE_PARAM, SEQUENCE_NAME);
+        parameters.put(INITIAL_PARAM, "1");
+        parameters.put(INCREMENT_PARAM, String.valueOf(allocationSize));
+        parameters.put(OPT_PARAM, String.valueOf(settings.getOrDefault(OPTIMIZER_SETTING, DEFAULT_OPTIMIZER)));
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
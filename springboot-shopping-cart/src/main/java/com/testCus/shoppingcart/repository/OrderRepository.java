@@ -4,14 +4,21 @@
  */
 package com.testCus.shoppingcart.repository;
 
+import com.testCus.shoppingcart.dto.OrderCustomerStatsDTO;
+import com.testCus.shoppingcart.dto.OrderStatusStatsDTO;
 import com.testCus.shoppingcart.model.OrderDetail;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  *
@@ -20,11 +27,40 @@ import java.util.Optional;
 @Repository
 public interface OrderRepository extends JpaRepository<OrderDetail, Integer> {
 
+    // Filas que el driver trae por viaje al recorrer órdenes en streaming
+    int STREAM_FETCH_SIZE = 500;
+
+    // Las consultas por estado ordenan por (status, orderId), igual que el índice
+    // idx_order_details_status_order, para que H2 lo recorra en orden sin ordenar las filas
+
     // Buscar una orden pendiente de un cliente específico
     @Query("SELECT o FROM OrderDetail o WHERE o.customer.customerId = :customerId AND o.status = :status")
     Optional<OrderDetail> findByCustomerIdAndStatus(@Param("customerId") int customerId, @Param("status") String status);
 
-    // Obtener todas las órdenes con un estado específico
-    List<OrderDetail> findByStatus(String status);
-}
+    // Contar las órdenes con un estado sin cargarlas
+    long countByStatus(String status);
+
+    // Primera orden (menor ID) con un estado
+    Optional<OrderDetail> findFirstByStatusOrderByStatusAscOrderIdAsc(String status);
 
+    // Página por keyset: órdenes con ID mayor al último de la página anterior
+    List<OrderDetail> findByStatusAndOrderIdGreaterThanOrderByStatusAscOrderIdAsc(String status, int afterOrderId, Limit limit);
+
+    // Recorrido completo por keyset leyendo del cursor JDBC en bloques; debe consumirse dentro de una transacción
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM OrderDetail o WHERE o.status = :status AND o.orderId > :afterOrderId ORDER BY o.status, o.orderId")
+    Stream<OrderDetail> streamByStatus(@Param("status") String status, @Param("afterOrderId") int afterOrderId);
+
+    // Conteo, suma y promedio por estado calculados en la base de datos (proyección a DTO, sin entidades)
+    @Query("SELECT new com.testCus.shoppingcart.dto.OrderStatusStatsDTO(o.status, COUNT(o), SUM(o.total), AVG(o.total)) "
+        + "FROM OrderDetail o GROUP BY o.status ORDER BY o.status")
+    List<OrderStatusStatsDTO> aggregateByStatus();
+
+    // Conteo, suma y promedio por cliente, de mayor a menor monto acumulado
+    @Query("SELECT new com.testCus.shoppingcart.dto.OrderCustomerStatsDTO(o.customer.customerId, COUNT(o), SUM(o.total), AVG(o.total)) "
+        + "FROM OrderDetail o GROUP BY o.customer.customerId ORDER BY SUM(o.total) DESC, o.customer.customerId")
+    List<OrderCustomerStatsDTO> aggregateByCustomer(Limit limit);
+}
@@ -0,0 +1,269 @@
+/*
+ * Cliente HTTP para FakeStore API
+ */
+package com.testCus.shoppingcart.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testCus.shoppingcart.config.HttpClientConfig;
+import com.testCus.shoppingcart.config.ProductApiProperties;
+import com.testCus.shoppingcart.dto.ProductDTO;
+import com.testCus.shoppingcart.exception.UpstreamUnavailableException;
+import com.testCus.shoppingcart.fakestore.FakeStoreStandIn;
+import com.testCus.shoppingcart.util.CircuitBreaker;
+import com.testCus.shoppingcart.util.LogUtil;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Encapsula las llamadas HTTP hacia FakeStore API.
+ * Todas las llamadas pasan por un bulkhead (máximo de llamadas simultáneas) y un
+ * circuit breaker: cuando FakeStore falla de forma repetida se rechazan de inmediato
+ * en lugar de esperar el timeout en cada petición.
+ */
+@Component
+public class FakeStoreClient {
+
+    private static final Logger logger = LogUtil.getLogger(FakeStoreClient.class);
+    private static final String OPERATION_CIRCUIT_BREAKER = "FAKESTORE_CIRCUIT_BREAKER";
+    private static final String PRODUCTS_PATH = "/products";
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final String productApiUrl;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+    private final long bulkheadMaxWaitMillis;
+    private final LongAdder catalogRequests = new LongAdder();
+    private final LongAdder productRequests = new LongAdder();
+    private final LongAdder categoryRequests = new LongAdder();
+    private final LongAdder bulkheadRejections = new LongAdder();
+    private final LongAdder skippedProducts = new LongAdder();
+
+    @Autowired
+    public FakeStoreClient(@Qualifier(HttpClientConfig.PRODUCT_REST_TEMPLATE) RestTemplate restTemplate,
+                           ProductApiProperties properties, ObjectMapper objectMapper,
+                           ObjectProvider<FakeStoreStandIn> standIn) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        // Con el sustituto local habilitado se usa su URL (puede escuchar en un puerto elegido al iniciar)
+        FakeStoreStandIn localStandIn = standIn.getIfAvailable();
+        String baseUrl = localStandIn != null ? localStandIn.getBaseUrl() : properties.getBaseUrl();
+        this.productApiUrl = stripTrailingSlash(baseUrl) + PRODUCTS_PATH;
+
+        ProductApiProperties.CircuitBreaker circuitBreakerProperties = properties.getCircuitBreaker();
+        this.circuitBreaker = new CircuitBreaker(
+            circuitBreakerProperties.getFailureThreshold(),
+            circuitBreakerProperties.getOpenDuration(),
+            circuitBreakerProperties.getHalfOpenMaxCalls(),
+            this::onStateTransition);
+        this.bulkhead = new Semaphore(properties.getBulkhead().getMaxConcurrentCalls());
+        this.bulkheadMaxWaitMillis = properties.getBulkhead().getMaxWait().toMillis();
+    }
+
+    /**
+     * Descarga el catálogo completo leyendo el arreglo JSON producto por producto,
+     * sin cargar antes todo el cuerpo en memoria. Los productos inválidos se descartan.
+     * @return Lista de productos (null si la API no devuelve cuerpo)
+     */
+    public List<ProductDTO> fetchAllProducts() {
+        return guarded(() -> {
+            catalogRequests.increment();
+            return restTemplate.execute(
+                productApiUrl,
+                HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)),
+                this::readProducts
+            );
+        });
+    }
+
+    /**
+     * Descarga un producto específico
+     * @param id ID del producto
+     * @return Producto (null si la API no devuelve cuerpo)
+     */
+    public ProductDTO fetchProduct(int id) {
+        return guarded(() -> {
+            productRequests.increment();
+            ResponseEntity<ProductDTO> response = restTemplate.exchange(
+                productApiUrl + "/" + id,
+                HttpMethod.GET,
+                null,
+                ProductDTO.class
+            );
+            return response.getBody();
+        });
+    }
+
+    /**
+     * Descarga los productos de una categoría, con el mismo parseo en streaming que el catálogo completo
+     * @param category Categoría tal como la publica FakeStore
+     * @return Lista de productos (vacía si la categoría no existe, null si la API no devuelve cuerpo)
+     */
+    public List<ProductDTO> fetchProductsByCategory(String category) {
+        return guarded(() -> {
+            categoryRequests.increment();
+            return restTemplate.execute(
+                productApiUrl + "/category/{category}",
+                HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)),
+                this::readProducts,
+                category
+            );
+        });
+    }
+
+    /**
+     * @return true si el circuito está cerrado y FakeStore responde con normalidad
+     */
+    public boolean isUpstreamHealthy() {
+        return circuitBreaker.getState() == CircuitBreaker.State.CLOSED;
+    }
+
+    /**
+     * @return URL base de productos en uso
+     */
+    public String getProductApiUrl() {
+        return productApiUrl;
+    }
+
+    /**
+     * @return número de llamadas realizadas hacia FakeStore por tipo y estado del circuit breaker
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("catalogRequests", catalogRequests.sum());
+        stats.put("productRequests", productRequests.sum());
+        stats.put("categoryRequests", categoryRequests.sum());
+        stats.put("bulkheadAvailable", bulkhead.availablePermits());
+        stats.put("bulkheadRejections", bulkheadRejections.sum());
+        stats.put("skippedInvalidProducts", skippedProducts.sum());
+        stats.put("circuitBreaker", circuitBreaker.getStats());
+        return stats;
+    }
+
+    /**
+     * Recorre el arreglo JSON token por token. Cada elemento se convierte a {@link ProductDTO}
+     * y se valida al leerlo; las categorías se comparten entre productos para no duplicar cadenas.
+     */
+    private List<ProductDTO> readProducts(ClientHttpResponse response) throws IOException {
+        try (InputStream body = response.getBody(); JsonParser parser = objectMapper.createParser(body)) {
+            JsonToken first = parser.nextToken();
+            if (first == null) {
+                return null;
+            }
+            if (first != JsonToken.START_ARRAY) {
+                throw new RestClientException("Respuesta inesperada de FakeStore: se esperaba un arreglo de productos");
+            }
+
+            int contentLength = (int) Math.min(response.getHeaders().getContentLength(), Integer.MAX_VALUE);
+            List<ProductDTO> products = new ArrayList<>(contentLength > 0 ? Math.max(16, contentLength / 512) : 16);
+            Map<String, String> categories = new HashMap<>();
+            for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                if (token == null) {
+                    throw new RestClientException("Respuesta incompleta de FakeStore");
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    skippedProducts.increment();
+                    continue;
+                }
+                ProductDTO product = objectMapper.readValue(parser, ProductDTO.class);
+                if (!isValid(product)) {
+                    skippedProducts.increment();
+                    continue;
+                }
+                product.setCategory(categories.computeIfAbsent(product.getCategory(), category -> category));
+                products.add(product);
+            }
+            return products;
+        }
+    }
+
+    /**
+     * Validación mínima para publicar un producto en el catálogo
+     */
+    private static boolean isValid(ProductDTO product) {
+        return product != null
+            && product.getId() > 0
+            && product.getTitle() != null && !product.getTitle().isBlank()
+            && product.getCategory() != null && !product.getCategory().isBlank()
+            && product.getPrice() >= 0;
+    }
+
+    private <T> T guarded(Supplier<T> call) {
+        if (!acquireBulkhead()) {
+            bulkheadRejections.increment();
+            throw new UpstreamUnavailableException("FakeStore saturado: demasiadas llamadas simultáneas");
+        }
+        try {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                throw new UpstreamUnavailableException("FakeStore no disponible (circuito abierto)");
+            }
+            try {
+                T result = call.get();
+                circuitBreaker.onSuccess();
+                return result;
+            } catch (HttpClientErrorException e) {
+                // Un 4xx significa que FakeStore respondió: no cuenta como falla del servicio
+                circuitBreaker.onSuccess();
+                throw e;
+            } catch (RestClientException e) {
+                circuitBreaker.onFailure();
+                throw new UpstreamUnavailableException("Error al llamar a FakeStore: " + e.getMessage(), e);
+            } catch (RuntimeException e) {
+                circuitBreaker.onFailure();
+                throw e;
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private boolean acquireBulkhead() {
+        try {
+            return bulkhead.tryAcquire(bulkheadMaxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void onStateTransition(CircuitBreaker.State from, CircuitBreaker.State to) {
+        String transactionId = "CB-" + System.currentTimeMillis();
+        String message = String.format("Circuit breaker de FakeStore: %s -> %s", from, to);
+        if (to == CircuitBreaker.State.CLOSED) {
+            LogUtil.logInfo(logger, OPERATION_CIRCUIT_BREAKER, transactionId, message);
+        } else {
+            LogUtil.logWarning(logger, OPERATION_CIRCUIT_BREAKER, transactionId, message);
+        }
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
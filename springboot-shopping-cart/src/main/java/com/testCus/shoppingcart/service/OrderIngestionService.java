@@ -0,0 +1,286 @@
+/*
+ * Recepción asíncrona (write-behind) de órdenes
+ */
+package com.testCus.shoppingcart.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.testCus.shoppingcart.config.OrderIngestionProperties;
+import com.testCus.shoppingcart.exception.OrderQueueFullException;
+import com.testCus.shoppingcart.model.OrderDetail;
+import com.testCus.shoppingcart.util.LogUtil;
+import org.slf4j.Logger;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Modo write-behind de {@code POST /api/orders}: la orden validada se coloca en una cola
+ * acotada y se responde de inmediato con un tracking ID. Un único hilo escritor vacía la
+ * cola en lotes de {@code orders.write-behind.batch-size} órdenes por transacción.
+ * <p>
+ * Con la cola llena la orden se rechaza ({@link OrderQueueFullException}, 429). Al detener
+ * la aplicación se deja de aceptar órdenes y el escritor guarda todas las que quedan en la
+ * cola antes de terminar; la fase de este componente es menor que la del servidor web, por
+ * lo que se detiene después de que este deja de recibir peticiones.
+ */
+@Service
+public class OrderIngestionService implements SmartLifecycle {
+
+    private static final Logger logger = LogUtil.getLogger(OrderIngestionService.class);
+    private static final String OPERATION_WRITE_BEHIND = "ORDER_WRITE_BEHIND";
+
+    // Se detiene después del servidor web (WebServerStartStopLifecycle usa DEFAULT_PHASE - 2048)
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_PERSISTED = "PERSISTED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    /**
+     * Estado de una orden recibida
+     * @param orderId ID asignado al guardarla, o null si aún no se guarda
+     * @param error Motivo de la falla, o null
+     */
+    public record IngestionState(String status, Integer orderId, String error) {
+    }
+
+    private record QueuedOrder(String trackingId, OrderDetail order) {
+    }
+
+    private final OrderIngestionProperties properties;
+    private final OrderService orderService;
+    private final TransactionIdService transactionIdService;
+    private final BlockingQueue<QueuedOrder> queue;
+    private final Cache<String, IngestionState> tracking;
+    // Lectura: encolar una orden; escritura: dejar de aceptar. Así ninguna orden entra a la cola
+    // después de que el escritor empezó a vaciarla para terminar
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder persisted = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    private volatile boolean accepting;
+    private volatile boolean running;
+    private volatile Runnable stopCallback;
+
+    public OrderIngestionService(OrderIngestionProperties properties, OrderService orderService,
+                                 TransactionIdService transactionIdService) {
+        if (properties.getQueueCapacity() < 1 || properties.getBatchSize() < 1) {
+            throw new IllegalArgumentException("orders.write-behind.queue-capacity y batch-size deben ser positivos");
+        }
+        this.properties = properties;
+        this.orderService = orderService;
+        this.transactionIdService = transactionIdService;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.tracking = Caffeine.newBuilder()
+            .maximumSize(properties.getTrackingMaximumSize())
+            .expireAfterWrite(properties.getTrackingTtl())
+            .build();
+    }
+
+    /**
+     * @return true si {@code POST /api/orders} debe encolar en lugar de guardar
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Encola una orden ya validada para guardarla en segundo plano
+     * @return tracking ID para consultar su estado
+     * @throws OrderQueueFullException si la cola está llena o la aplicación se está deteniendo
+     */
+    public String submit(OrderDetail order) {
+        String trackingId = "ING-" + UUID.randomUUID();
+        acceptLock.readLock().lock();
+        try {
+            if (!accepting) {
+                rejected.increment();
+                throw new OrderQueueFullException("La recepción de órdenes no está disponible", properties.getRetryAfter());
+            }
+            // El estado se registra antes de encolar para que el escritor siempre lo encuentre
+            tracking.put(trackingId, new IngestionState(STATUS_QUEUED, null, null));
+            if (!queue.offer(new QueuedOrder(trackingId, order))) {
+                tracking.invalidate(trackingId);
+                rejected.increment();
+                throw new OrderQueueFullException("La cola de órdenes está llena (" + properties.getQueueCapacity()
+                    + "), reintente más tarde", properties.getRetryAfter());
+            }
+            accepted.increment();
+            return trackingId;
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return estado de la orden, o vacío si el tracking ID no existe o ya expiró
+     */
+    public Optional<IngestionState> getState(String trackingId) {
+        return Optional.ofNullable(tracking.getIfPresent(trackingId));
+    }
+
+    /**
+     * @return tamaño de la cola y contadores de órdenes aceptadas, rechazadas, guardadas y fallidas
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("accepting", accepting);
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", properties.getQueueCapacity());
+        stats.put("accepted", accepted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("persisted", persisted.sum());
+        stats.put("failed", failed.sum());
+        stats.put("batches", batches.sum());
+        return stats;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running || !properties.isEnabled()) {
+            return;
+        }
+        accepting = true;
+        running = true;
+        Thread.ofPlatform().name("order-write-behind").start(this::drainLoop);
+        LogUtil.logInfo(logger, OPERATION_WRITE_BEHIND, "WBH-" + System.currentTimeMillis(),
+            String.format("Recepción asíncrona de órdenes iniciada (cola %d, lotes de %d)",
+                properties.getQueueCapacity(), properties.getBatchSize()));
+    }
+
+    /**
+     * Igual que {@link #stop(Runnable)}, pero espera a que el escritor termine de vaciar la cola
+     */
+    @Override
+    public void stop() {
+        CountDownLatch drained = new CountDownLatch(1);
+        stop(drained::countDown);
+        try {
+            drained.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Deja de aceptar órdenes; el escritor guarda las pendientes y luego ejecuta {@code callback}
+     */
+    @Override
+    public synchronized void stop(Runnable callback) {
+        if (!running) {
+            callback.run();
+            return;
+        }
+        stopCallback = callback;
+        acceptLock.writeLock().lock();
+        try {
+            accepting = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+        LogUtil.logInfo(logger, OPERATION_WRITE_BEHIND, "WBH-" + System.currentTimeMillis(),
+            String.format("Deteniendo recepción asíncrona; órdenes pendientes en la cola: %d", queue.size()));
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void drainLoop() {
+        List<QueuedOrder> batch = new ArrayList<>(properties.getBatchSize());
+        try {
+            while (true) {
+                QueuedOrder first = queue.poll(properties.getPollInterval().toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    // Solo se termina sin aceptar órdenes nuevas y con la cola vacía; una orden
+                    // encolada justo después de que venció la espera se guarda en la siguiente vuelta
+                    if (!accepting && queue.isEmpty()) {
+                        break;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, properties.getBatchSize() - 1);
+                writeBatch(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LogUtil.logWarning(logger, OPERATION_WRITE_BEHIND, "WBH-" + System.currentTimeMillis(),
+                "Escritor interrumpido con órdenes pendientes", "pending", queue.size() + batch.size());
+        } finally {
+            LogUtil.logInfo(logger, OPERATION_WRITE_BEHIND, "WBH-" + System.currentTimeMillis(),
+                "Recepción asíncrona detenida", "accepted", accepted.sum(), "persisted", persisted.sum(),
+                "failed", failed.sum(), "pending", queue.size());
+            synchronized (this) {
+                running = false;
+                if (stopCallback != null) {
+                    stopCallback.run();
+                }
+            }
+        }
+    }
+
+    /**
+     * Guarda el lote en una transacción; si falla se reintenta orden por orden para que
+     * una orden inválida no descarte a las demás. El lote revertido ya asignó IDs de la
+     * secuencia a las entidades: se limpian antes del reintento para que cada orden se
+     * inserte como nueva en lugar de fusionarse con un ID que no existe en la base.
+     */
+    private void writeBatch(List<QueuedOrder> batch) {
+        String transactionId = transactionIdService.generateOrderTransactionId();
+        List<OrderDetail> orders = new ArrayList<>(batch.size());
+        for (QueuedOrder queued : batch) {
+            orders.add(queued.order());
+        }
+        batches.increment();
+        try {
+            List<OrderDetail> saved = orderService.saveOrders(orders, transactionId);
+            for (int i = 0; i < batch.size(); i++) {
+                markPersisted(batch.get(i).trackingId(), saved.get(i));
+            }
+        } catch (RuntimeException batchError) {
+            LogUtil.logWarning(logger, OPERATION_WRITE_BEHIND, transactionId,
+                "Falló el lote, se guardan las órdenes una por una",
+                "orders", batch.size(), "error", batchError.getMessage());
+            for (QueuedOrder queued : batch) {
+                queued.order().setOrderId(0);
+                try {
+                    markPersisted(queued.trackingId(), orderService.saveOrders(List.of(queued.order()), transactionId).get(0));
+                } catch (RuntimeException e) {
+                    failed.increment();
+                    tracking.put(queued.trackingId(), new IngestionState(STATUS_FAILED, null, e.getMessage()));
+                }
+            }
+        }
+    }
+
+    private void markPersisted(String trackingId, OrderDetail saved) {
+        persisted.increment();
+        tracking.put(trackingId, new IngestionState(STATUS_PERSISTED, saved.getOrderId(), null));
+    }
+}
@@ -4,14 +4,26 @@
  */
 package com.testCus.shoppingcart.service;
 
+import com.testCus.shoppingcart.dto.OrderCustomerStatsDTO;
+import com.testCus.shoppingcart.dto.OrderStatsResponse;
+import com.testCus.shoppingcart.dto.OrderStatusStatsDTO;
 import com.testCus.shoppingcart.model.OrderDetail;
 import com.testCus.shoppingcart.repository.OrderRepository;
 import com.testCus.shoppingcart.util.LogUtil;
 import org.slf4j.Logger;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  *
@@ -22,15 +34,33 @@ public class OrderService {
 
     private static final Logger logger = LogUtil.getLogger(OrderService.class);
     private static final String OPERATION_SAVE_ORDER = "SAVE_ORDER";
+    private static final String OPERATION_SAVE_ORDERS_BATCH = "SAVE_ORDERS_BATCH";
     private static final String OPERATION_GET_ORDERS_BY_STATUS = "GET_ORDERS_BY_STATUS";
+    private static final String OPERATION_GET_ORDERS_PAGE = "GET_ORDERS_PAGE";
+    private static final String OPERATION_STREAM_ORDERS = "STREAM_ORDERS";
+    private static final String OPERATION_GET_ORDER_STATS = "GET_ORDER_STATS";
     private static final String OPERATION_FIND_PENDING_ORDER = "FIND_PENDING_ORDER";
     private static final String OPERATION_UPDATE_ORDER = "UPDATE_ORDER";
     
     private final OrderRepository orderRepository;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxPageSize;
+    private final int maxStatsCustomers;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
-    public OrderService(OrderRepository orderRepository) {
+    public OrderService(OrderRepository orderRepository, PlatformTransactionManager transactionManager,
+                        @Value("${orders.page.max-limit:100}") int maxPageSize,
+                        @Value("${orders.stats.max-customers:100}") int maxStatsCustomers) {
         this.orderRepository = orderRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxPageSize = maxPageSize;
+        this.maxStatsCustomers = maxStatsCustomers;
     }
 
     public OrderDetail saveOrder(OrderDetail order, String transactionId) {
@@ -71,38 +101,150 @@ public class OrderService {
         }
     }
 
-    public List<OrderDetail> getOrdersByStatus(String status, String transactionId) {
+    /**
+     * Guarda varias órdenes en una sola transacción: o se guardan todas o ninguna.
+     * Hibernate agrupa los INSERT en lotes JDBC de {@code hibernate.jdbc.batch_size}.
+     * @return órdenes guardadas, en el mismo orden recibido
+     */
+    public List<OrderDetail> saveOrders(List<OrderDetail> orders, String transactionId) {
+        long startTime = System.currentTimeMillis();
+        LogUtil.logOperationStart(logger, OPERATION_SAVE_ORDERS_BATCH, transactionId, "ordersCount", orders.size());
+        try {
+            List<OrderDetail> savedOrders = transaction.execute(tx -> orderRepository.saveAll(orders));
+            LogUtil.logOperationSuccess(logger, OPERATION_SAVE_ORDERS_BATCH, transactionId,
+                String.format("Órdenes guardadas: %d", savedOrders.size()));
+            LogUtil.logExecutionTime(logger, OPERATION_SAVE_ORDERS_BATCH, transactionId, startTime, System.currentTimeMillis());
+            return savedOrders;
+        } catch (Exception e) {
+            LogUtil.logSystemError(logger, OPERATION_SAVE_ORDERS_BATCH, transactionId, "SAVE_ERROR",
+                "Error al guardar el lote de órdenes", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Cuenta las órdenes con un estado sin cargarlas
+     * @return número de órdenes con el estado
+     */
+    public long countOrdersByStatus(String status, String transactionId) {
         long startTime = System.currentTimeMillis();
-        
-        // Log de inicio de operación
         LogUtil.logOperationStart(logger, OPERATION_GET_ORDERS_BY_STATUS, transactionId, "status", status);
-        
         try {
-            // Log de datos de entrada
-            LogUtil.logInputData(logger, OPERATION_GET_ORDERS_BY_STATUS, transactionId, "Status", status);
-            
-            // Obtener órdenes por estado
-            LogUtil.logInfo(logger, OPERATION_GET_ORDERS_BY_STATUS, transactionId, "Obteniendo órdenes del repositorio");
-            List<OrderDetail> orders = orderRepository.findByStatus(status);
-            
-            // Log de datos de salida
-            LogUtil.logOutputData(logger, OPERATION_GET_ORDERS_BY_STATUS, transactionId, "Orders", 
-                String.format("Total órdenes encontradas: %d", orders.size()));
-            
-            // Log de operación exitosa
-            LogUtil.logOperationSuccess(logger, OPERATION_GET_ORDERS_BY_STATUS, transactionId, 
-                String.format("Órdenes obtenidas: %d", orders.size()));
-            
-            // Log de tiempo de ejecución
-            long endTime = System.currentTimeMillis();
-            LogUtil.logExecutionTime(logger, OPERATION_GET_ORDERS_BY_STATUS, transactionId, startTime, endTime);
-            
+            long count = orderRepository.countByStatus(status);
+            LogUtil.logOperationSuccess(logger, OPERATION_GET_ORDERS_BY_STATUS, transactionId,
+                String.format("Órdenes con estado %s: %d", status, count));
+            LogUtil.logExecutionTime(logger, OPERATION_GET_ORDERS_BY_STATUS, transactionId, startTime, System.currentTimeMillis());
+            return count;
+        } catch (Exception e) {
+            LogUtil.logSystemError(logger, OPERATION_GET_ORDERS_BY_STATUS, transactionId, "QUERY_ERROR",
+                "Error al contar órdenes por estado", e);
+            throw e;
+        }
+    }
+
+    /**
+     * @return orden de menor ID con el estado indicado
+     */
+    public Optional<OrderDetail> findFirstOrderByStatus(String status) {
+        return orderRepository.findFirstByStatusOrderByStatusAscOrderIdAsc(status);
+    }
+
+    /**
+     * Obtiene una página de órdenes por estado ordenadas por ID.
+     * La página empieza después de {@code afterOrderId} usando el índice (status, order_id),
+     * por lo que cualquier página cuesta lo mismo que la primera.
+     * @param afterOrderId ID de la última orden de la página anterior (0 para la primera)
+     * @param limit Máximo de órdenes en la página
+     */
+    public List<OrderDetail> getOrdersPage(String status, int afterOrderId, int limit, String transactionId) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + maxPageSize);
+        }
+        if (afterOrderId < 0) {
+            throw new IllegalArgumentException("afterOrderId no puede ser negativo");
+        }
+        long startTime = System.currentTimeMillis();
+        LogUtil.logOperationStart(logger, OPERATION_GET_ORDERS_PAGE, transactionId,
+            "status", status, "afterOrderId", afterOrderId, "limit", limit);
+        try {
+            List<OrderDetail> orders = orderRepository.findByStatusAndOrderIdGreaterThanOrderByStatusAscOrderIdAsc(
+                status, afterOrderId, Limit.of(limit));
+            LogUtil.logOperationSuccess(logger, OPERATION_GET_ORDERS_PAGE, transactionId,
+                String.format("Órdenes en la página: %d", orders.size()));
+            LogUtil.logExecutionTime(logger, OPERATION_GET_ORDERS_PAGE, transactionId, startTime, System.currentTimeMillis());
             return orders;
-            
         } catch (Exception e) {
-            // Log de error del sistema
-            LogUtil.logSystemError(logger, OPERATION_GET_ORDERS_BY_STATUS, transactionId, "QUERY_ERROR", 
-                "Error al obtener órdenes por estado", e);
+            LogUtil.logSystemError(logger, OPERATION_GET_ORDERS_PAGE, transactionId, "QUERY_ERROR",
+                "Error al obtener la página de órdenes", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Calcula conteo, suma y promedio del total por estado y por cliente.
+     * La agregación se hace en la base de datos y los resultados se proyectan a DTOs,
+     * por lo que no se carga ninguna orden en el contexto de persistencia.
+     * @param customerLimit Máximo de clientes a incluir, de mayor a menor monto acumulado
+     */
+    public OrderStatsResponse getOrderStats(int customerLimit, String transactionId) {
+        if (customerLimit < 0 || customerLimit > maxStatsCustomers) {
+            throw new IllegalArgumentException("customerLimit debe estar entre 0 y " + maxStatsCustomers);
+        }
+        long startTime = System.currentTimeMillis();
+        LogUtil.logOperationStart(logger, OPERATION_GET_ORDER_STATS, transactionId, "customerLimit", customerLimit);
+        try {
+            // Ambas consultas en la misma transacción de solo lectura
+            OrderStatsResponse stats = readOnlyTransaction.execute(tx -> {
+                List<OrderStatusStatsDTO> byStatus = orderRepository.aggregateByStatus();
+                List<OrderCustomerStatsDTO> byCustomer = customerLimit == 0
+                    ? List.of() : orderRepository.aggregateByCustomer(Limit.of(customerLimit));
+                return new OrderStatsResponse(transactionId, byStatus, customerLimit, byCustomer);
+            });
+            LogUtil.logOperationSuccess(logger, OPERATION_GET_ORDER_STATS, transactionId,
+                String.format("Órdenes: %d, estados: %d", stats.getCount(), stats.getByStatus().size()));
+            LogUtil.logExecutionTime(logger, OPERATION_GET_ORDER_STATS, transactionId, startTime, System.currentTimeMillis());
+            return stats;
+        } catch (Exception e) {
+            LogUtil.logSystemError(logger, OPERATION_GET_ORDER_STATS, transactionId, "QUERY_ERROR",
+                "Error al calcular estadísticas de órdenes", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Recorre todas las órdenes con un estado, en orden de ID, entregándolas una por una.
+     * Se leen del cursor JDBC en bloques de {@link OrderRepository#STREAM_FETCH_SIZE} filas y
+     * cada orden se separa del contexto de persistencia después de entregarla, de modo que la
+     * memoria usada no depende de cuántas órdenes coinciden.
+     * @param afterOrderId Se omiten las órdenes con ID menor o igual (0 para todas)
+     * @param sink Recibe cada orden; se ejecuta dentro de una transacción de solo lectura
+     * @return número de órdenes entregadas
+     */
+    public long streamOrdersByStatus(String status, int afterOrderId, Consumer<OrderDetail> sink, String transactionId) {
+        long startTime = System.currentTimeMillis();
+        LogUtil.logOperationStart(logger, OPERATION_STREAM_ORDERS, transactionId,
+            "status", status, "afterOrderId", afterOrderId);
+        try {
+            Long streamed = readOnlyTransaction.execute(tx -> {
+                long count = 0;
+                try (Stream<OrderDetail> orders = orderRepository.streamByStatus(status, afterOrderId)) {
+                    Iterator<OrderDetail> iterator = orders.iterator();
+                    while (iterator.hasNext()) {
+                        OrderDetail order = iterator.next();
+                        sink.accept(order);
+                        entityManager.detach(order);
+                        count++;
+                    }
+                }
+                return count;
+            });
+            LogUtil.logOperationSuccess(logger, OPERATION_STREAM_ORDERS, transactionId,
+                String.format("Órdenes enviadas: %d", streamed));
+            LogUtil.logExecutionTime(logger, OPERATION_STREAM_ORDERS, transactionId, startTime, System.currentTimeMillis());
+            return streamed;
+        } catch (Exception e) {
+            LogUtil.logSystemError(logger, OPERATION_STREAM_ORDERS, transactionId, "STREAM_ERROR",
+                "Error al enviar órdenes por estado", e);
             throw e;
         }
     }
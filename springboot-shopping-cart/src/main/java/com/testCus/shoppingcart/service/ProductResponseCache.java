@@ -0,0 +1,193 @@
+/*
+ * Caché de respuestas de productos ya serializadas
+ */
+package com.testCus.shoppingcart.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.testCus.shoppingcart.catalog.CatalogRefreshedEvent;
+import com.testCus.shoppingcart.catalog.ProductCatalog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Guarda el JSON ya codificado (y su variante gzip) de cada vista del catálogo.
+ * Las respuestas se escriben como bytes, sin volver a pasar por Jackson, hasta
+ * que se publica un nuevo snapshot. Se activa con {@code product.response-cache.enabled}.
+ */
+@Component
+public class ProductResponseCache {
+
+    public static final String CATEGORIES_VIEW = "categories";
+    public static final String CATEGORY_VIEW_PREFIX = "category:";
+    public static final String PRODUCT_VIEW_PREFIX = "product:";
+    public static final String PRODUCTS_VIEW_PREFIX = "products:";
+
+    private final ObjectMapper objectMapper;
+    private final ProductCatalog productCatalog;
+    private final boolean enabled;
+    private final Cache<String, EncodedResponse> responses;
+
+    @Autowired
+    public ProductResponseCache(ObjectMapper objectMapper, ProductCatalog productCatalog,
+                                @Value("${product.response-cache.enabled:true}") boolean enabled,
+                                @Value("${product.response-cache.maximum-size:1000}") long maximumSize) {
+        this.objectMapper = objectMapper;
+        this.productCatalog = productCatalog;
+        this.enabled = enabled;
+        this.responses = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * JSON codificado de una vista del catálogo
+     */
+    public static final class EncodedResponse {
+        private final byte[] json;
+        private final byte[] gzip;
+
+        EncodedResponse(byte[] json, byte[] gzip) {
+            this.json = json;
+            this.gzip = gzip;
+        }
+
+        /**
+         * {@code Vary: Accept-Encoding} no se agrega aquí: el controlador la pone en todas las
+         * respuestas de productos, incluidas las 304 y las que no pasan por esta caché
+         * @param gzipAccepted true si el cliente acepta {@code Content-Encoding: gzip}
+         * @return respuesta 200 con los bytes listos para escribir
+         */
+        public ResponseEntity<byte[]> toResponse(boolean gzipAccepted) {
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON);
+            if (gzipAccepted) {
+                return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(gzip);
+            }
+            return builder.body(json);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Obtiene la vista codificada, serializándola solo la primera vez por snapshot
+     * @param view Nombre de la vista (por ejemplo {@code product:3})
+     * @param body Carga el cuerpo de la respuesta cuando no está codificado
+     * @return bytes codificados o null si el cuerpo es vacío (no se guarda)
+     */
+    public EncodedResponse get(String view, Supplier<?> body) {
+        String key = productCatalog.snapshot().getVersion() + ":" + view;
+        EncodedResponse encoded = responses.getIfPresent(key);
+        if (encoded != null) {
+            return encoded;
+        }
+        Object value = body.get();
+        if (value == null || (value instanceof Collection<?> collection && collection.isEmpty())) {
+            return null;
+        }
+        encoded = encode(value);
+        responses.put(key, encoded);
+        return encoded;
+    }
+
+    /**
+     * @return estadísticas de la caché de respuestas codificadas
+     */
+    public Map<String, Object> getStats() {
+        CacheStats stats = responses.stats();
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("enabled", enabled);
+        description.put("size", responses.estimatedSize());
+        description.put("hitCount", stats.hitCount());
+        description.put("missCount", stats.missCount());
+        description.put("hitRatio", stats.hitRate());
+        return description;
+    }
+
+    /**
+     * Descarta los bytes del snapshot anterior. Si el cambio es parcial, las vistas que no
+     * dependen de los productos o categorías cambiados se pasan a la nueva versión en lugar
+     * de volver a serializarse.
+     */
+    @EventListener
+    public void onCatalogRefreshed(CatalogRefreshedEvent event) {
+        if (!event.isPartial()) {
+            responses.invalidateAll();
+            return;
+        }
+        String previousPrefix = event.getPrevious().getVersion() + ":";
+        String currentPrefix = event.getCurrent().getVersion() + ":";
+        Map<String, EncodedResponse> carried = new HashMap<>();
+        responses.asMap().forEach((key, encoded) -> {
+            if (key.startsWith(previousPrefix)) {
+                String view = key.substring(previousPrefix.length());
+                if (!isAffected(view, event)) {
+                    carried.put(currentPrefix + view, encoded);
+                }
+            }
+        });
+        responses.asMap().keySet().removeIf(key -> !key.startsWith(currentPrefix));
+        carried.forEach(responses.asMap()::putIfAbsent);
+    }
+
+    /**
+     * Indica si la vista cambia con el evento: el catálogo completo siempre, y los productos,
+     * categorías o la lista de categorías solo si están entre los cambios
+     */
+    private static boolean isAffected(String view, CatalogRefreshedEvent event) {
+        if (view.equals(CATEGORIES_VIEW)) {
+            return event.categoriesChanged();
+        }
+        if (view.startsWith(CATEGORY_VIEW_PREFIX)) {
+            return event.getChangedCategories().contains(view.substring(CATEGORY_VIEW_PREFIX.length()));
+        }
+        String id = view.startsWith(PRODUCT_VIEW_PREFIX) ? view.substring(PRODUCT_VIEW_PREFIX.length())
+            : view.startsWith(PRODUCTS_VIEW_PREFIX) ? view.substring(PRODUCTS_VIEW_PREFIX.length()) : null;
+        if (id == null) {
+            return true;
+        }
+        try {
+            int productId = Integer.parseInt(id);
+            return productId == 0 || event.getChangedProductIds().contains(productId);
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private EncodedResponse encode(Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(json);
+            }
+            return new EncodedResponse(json, compressed.toByteArray());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la respuesta: " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
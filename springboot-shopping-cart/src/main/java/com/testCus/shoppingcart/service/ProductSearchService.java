@@ -0,0 +1,230 @@
+/*
+ * Servicio de búsqueda de texto y facetas sobre el catálogo
+ */
+package com.testCus.shoppingcart.service;
+
+import com.testCus.shoppingcart.catalog.CatalogRefreshedEvent;
+import com.testCus.shoppingcart.catalog.CatalogSnapshot;
+import com.testCus.shoppingcart.catalog.ProductCatalog;
+import com.testCus.shoppingcart.catalog.ProductSearchIndex;
+import com.testCus.shoppingcart.dto.ProductDTO;
+import com.testCus.shoppingcart.dto.ProductSearchResponse;
+import com.testCus.shoppingcart.util.LogUtil;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Búsqueda de productos por texto con facetas de categoría, precio y valoración.
+ * Se resuelve contra un {@link ProductSearchIndex} que se reconstruye cada vez que
+ * se publica un nuevo snapshot del catálogo.
+ */
+@Service
+public class ProductSearchService {
+
+    private static final Logger logger = LogUtil.getLogger(ProductSearchService.class);
+    private static final String OPERATION_BUILD_SEARCH_INDEX = "BUILD_SEARCH_INDEX";
+
+    private static final double[] PRICE_BUCKET_LIMITS = {25, 50, 100, 250};
+    private static final String[] PRICE_BUCKET_LABELS = {"0-25", "25-50", "50-100", "100-250", "250+"};
+    private static final int[] RATING_THRESHOLDS = {4, 3, 2, 1};
+
+    private final ProductCatalog productCatalog;
+    private final int maxLimit;
+    private final AtomicReference<ProductSearchIndex> index = new AtomicReference<>(ProductSearchIndex.EMPTY);
+
+    @Autowired
+    public ProductSearchService(ProductCatalog productCatalog,
+                                @Value("${product.search.max-limit:100}") int maxLimit) {
+        this.productCatalog = productCatalog;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Busca productos
+     * @param query Texto libre sobre título y descripción (opcional; si solo tiene palabras
+     *              vacías o signos no hay resultados)
+     * @param category Categoría exacta, sin distinguir mayúsculas (opcional)
+     * @param minPrice Precio mínimo inclusive (opcional)
+     * @param maxPrice Precio máximo inclusive (opcional)
+     * @param minRating Valoración mínima (opcional)
+     * @param limit Máximo de productos en la respuesta
+     * @return productos ordenados por relevancia y conteos por faceta
+     */
+    public ProductSearchResponse search(String query, String category, Double minPrice, Double maxPrice,
+                                        Double minRating, int limit) {
+        if (limit < 1 || limit > maxLimit) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + maxLimit);
+        }
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("El precio mínimo no puede ser mayor al precio máximo");
+        }
+
+        List<String> terms = ProductSearchIndex.tokenize(query);
+        if (terms.isEmpty() && query != null && !query.isBlank()) {
+            // Solo palabras vacías o signos: no hay términos que buscar, no se retorna todo el catálogo
+            return new ProductSearchResponse(query, 0, List.of(), Map.of(),
+                labeled(PRICE_BUCKET_LABELS, new int[PRICE_BUCKET_LABELS.length]),
+                ratingFacets(new int[RATING_THRESHOLDS.length]));
+        }
+        ProductSearchIndex current = currentIndex();
+        ProductSearchIndex.Match match = current.match(terms);
+        boolean[] categoryFilter = resolveCategory(current, category);
+        double lowPrice = minPrice != null ? minPrice : Double.NEGATIVE_INFINITY;
+        double highPrice = maxPrice != null ? maxPrice : Double.POSITIVE_INFINITY;
+        double lowRating = minRating != null ? minRating : Double.NEGATIVE_INFINITY;
+
+        // Facetas disyuntivas: cada faceta cuenta con los demás filtros aplicados, no con el suyo
+        int[] categoryCounts = new int[current.categoryCount()];
+        int[] priceCounts = new int[PRICE_BUCKET_LABELS.length];
+        int[] ratingCounts = new int[RATING_THRESHOLDS.length];
+        int[] results = new int[match.getDocuments().cardinality()];
+        int total = 0;
+
+        BitSet documents = match.getDocuments();
+        for (int doc = documents.nextSetBit(0); doc >= 0; doc = documents.nextSetBit(doc + 1)) {
+            int ordinal = current.categoryOrdinal(doc);
+            double price = current.price(doc);
+            double rating = current.rating(doc);
+            boolean categoryOk = categoryFilter == null || (ordinal >= 0 && categoryFilter[ordinal]);
+            boolean priceOk = price >= lowPrice && price <= highPrice;
+            boolean ratingOk = rating >= lowRating;
+
+            if (priceOk && ratingOk && ordinal >= 0) {
+                categoryCounts[ordinal]++;
+            }
+            if (categoryOk && ratingOk) {
+                priceCounts[priceBucket(price)]++;
+            }
+            if (categoryOk && priceOk) {
+                for (int i = 0; i < RATING_THRESHOLDS.length; i++) {
+                    if (rating >= RATING_THRESHOLDS[i]) {
+                        ratingCounts[i]++;
+                    }
+                }
+            }
+            if (categoryOk && priceOk && ratingOk) {
+                results[total++] = doc;
+            }
+        }
+
+        return new ProductSearchResponse(query, total, topResults(current, match, terms, results, total, limit),
+            categoryFacets(current, categoryCounts), labeled(PRICE_BUCKET_LABELS, priceCounts), ratingFacets(ratingCounts));
+    }
+
+    /**
+     * Reconstruye el índice con el nuevo snapshot, reutilizando los términos de los productos sin cambios
+     */
+    @EventListener
+    public void onCatalogRefreshed(CatalogRefreshedEvent event) {
+        rebuild(event.getCurrent());
+    }
+
+    private ProductSearchIndex currentIndex() {
+        CatalogSnapshot snapshot = productCatalog.snapshot();
+        ProductSearchIndex current = index.get();
+        return current.getVersion() == snapshot.getVersion() ? current : rebuild(snapshot);
+    }
+
+    private synchronized ProductSearchIndex rebuild(CatalogSnapshot snapshot) {
+        ProductSearchIndex previous = index.get();
+        if (previous.getVersion() == snapshot.getVersion()) {
+            return previous;
+        }
+        String transactionId = "IDX-" + System.currentTimeMillis();
+        long startTime = System.currentTimeMillis();
+        ProductSearchIndex next = ProductSearchIndex.build(snapshot, previous);
+        index.set(next);
+        LogUtil.logInfo(logger, OPERATION_BUILD_SEARCH_INDEX, transactionId,
+            String.format("Índice v%d: %d productos, %d términos, %d productos reutilizados en %d ms",
+                next.getVersion(), next.size(), next.termCount(), next.getReusedDocuments(),
+                System.currentTimeMillis() - startTime));
+        return next;
+    }
+
+    /**
+     * Las categorías del catálogo distinguen mayúsculas, por lo que el filtro puede
+     * coincidir con varias (por ejemplo "Electronics" y "electronics")
+     * @return categorías aceptadas por posición, o null si no se filtra por categoría
+     */
+    private static boolean[] resolveCategory(ProductSearchIndex current, String category) {
+        if (category == null || category.isBlank()) {
+            return null;
+        }
+        boolean[] accepted = new boolean[current.categoryCount()];
+        for (int i = 0; i < current.categoryCount(); i++) {
+            accepted[i] = current.categoryName(i).equalsIgnoreCase(category.trim());
+        }
+        return accepted;
+    }
+
+    private static int priceBucket(double price) {
+        for (int i = 0; i < PRICE_BUCKET_LIMITS.length; i++) {
+            if (price < PRICE_BUCKET_LIMITS[i]) {
+                return i;
+            }
+        }
+        return PRICE_BUCKET_LIMITS.length;
+    }
+
+    /**
+     * Ordena por puntaje (mayor primero) y luego por posición en el catálogo.
+     * Puntaje y posición se empaquetan en un long para ordenar sin objetos intermedios.
+     */
+    private static List<ProductDTO> topResults(ProductSearchIndex current, ProductSearchIndex.Match match,
+                                               List<String> terms, int[] results, int total, int limit) {
+        int size = Math.min(limit, total);
+        List<ProductDTO> products = new ArrayList<>(size);
+        if (terms.isEmpty()) {
+            for (int i = 0; i < size; i++) {
+                products.add(current.product(results[i]));
+            }
+            return products;
+        }
+        long[] ranked = new long[total];
+        for (int i = 0; i < total; i++) {
+            ranked[i] = ((long) (Integer.MAX_VALUE - match.score(results[i])) << 32) | results[i];
+        }
+        Arrays.sort(ranked);
+        for (int i = 0; i < size; i++) {
+            products.add(current.product((int) ranked[i]));
+        }
+        return products;
+    }
+
+    private static Map<String, Integer> categoryFacets(ProductSearchIndex current, int[] counts) {
+        Map<String, Integer> facets = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                facets.put(current.categoryName(i), counts[i]);
+            }
+        }
+        return facets;
+    }
+
+    private static Map<String, Integer> ratingFacets(int[] counts) {
+        Map<String, Integer> facets = new LinkedHashMap<>();
+        for (int i = 0; i < RATING_THRESHOLDS.length; i++) {
+            facets.put(RATING_THRESHOLDS[i] + "+", counts[i]);
+        }
+        return facets;
+    }
+
+    private static Map<String, Integer> labeled(String[] labels, int[] counts) {
+        Map<String, Integer> facets = new LinkedHashMap<>();
+        for (int i = 0; i < labels.length; i++) {
+            facets.put(labels[i], counts[i]);
+        }
+        return facets;
+    }
+}
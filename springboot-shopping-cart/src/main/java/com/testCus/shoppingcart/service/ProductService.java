@@ -3,123 +3,481 @@
  */
 package com.testCus.shoppingcart.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.testCus.shoppingcart.catalog.CatalogRefreshedEvent;
+import com.testCus.shoppingcart.catalog.CatalogSnapshot;
+import com.testCus.shoppingcart.catalog.ProductCatalog;
+import com.testCus.shoppingcart.catalog.ProductCursor;
+import com.testCus.shoppingcart.catalog.ProductSort;
+import com.testCus.shoppingcart.config.CacheConfig;
+import com.testCus.shoppingcart.config.ProductCacheKeyGenerator;
 import com.testCus.shoppingcart.dto.ProductDTO;
+import com.testCus.shoppingcart.dto.ProductLookupResult;
+import com.testCus.shoppingcart.dto.ProductPageResponse;
 import com.testCus.shoppingcart.exception.ProductNotFoundException;
+import com.testCus.shoppingcart.exception.UpstreamUnavailableException;
+import com.testCus.shoppingcart.util.SingleFlight;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.ResponseEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Servicio que actúa como proxy hacia FakeStore API
+ * Servicio que actúa como proxy hacia FakeStore API.
+ * Las lecturas se resuelven contra el snapshot en memoria de {@link ProductCatalog};
+ * solo los IDs que aún no aparecen en el snapshot se consultan directamente a la API.
  */
 @Service
 public class ProductService {
 
-    private static final String PRODUCT_API_URL = "https://fakestoreapi.com/products";
-    private final RestTemplate restTemplate;
+    private final ProductCatalog productCatalog;
+    private final FakeStoreClient fakeStoreClient;
+    private final CacheManager cacheManager;
+    private final ProductResponseCache responseCache;
+    private final SingleFlight<Integer, ProductDTO> productLookups = new SingleFlight<>();
+    private final int maxBatchIds;
+    private final int maxPageSize;
+    private final Cache<Integer, Boolean> unknownIds;
+    private final boolean trustCatalogForUnknownIds;
+    private final LongAdder rejectedUnknownIds = new LongAdder();
+    private final Semaphore batchFetchPermits;
 
-    public ProductService() {
-        this.restTemplate = new RestTemplate();
+    @Autowired
+    public ProductService(ProductCatalog productCatalog, FakeStoreClient fakeStoreClient, CacheManager cacheManager,
+                          ProductResponseCache responseCache,
+                          @Value("${product.batch.max-ids:100}") int maxBatchIds,
+                          @Value("${product.batch.max-concurrency:8}") int maxBatchConcurrency,
+                          @Value("${product.page.max-limit:100}") int maxPageSize,
+                          @Value("${product.negative-cache.ttl:60s}") Duration unknownIdTtl,
+                          @Value("${product.negative-cache.maximum-size:10000}") long unknownIdMaximumSize,
+                          @Value("${product.negative-cache.trust-catalog:false}") boolean trustCatalogForUnknownIds) {
+        this.productCatalog = productCatalog;
+        this.fakeStoreClient = fakeStoreClient;
+        this.cacheManager = cacheManager;
+        this.responseCache = responseCache;
+        this.maxBatchIds = maxBatchIds;
+        this.batchFetchPermits = new Semaphore(maxBatchConcurrency);
+        this.maxPageSize = maxPageSize;
+        this.unknownIds = Caffeine.newBuilder()
+            .expireAfterWrite(unknownIdTtl)
+            .maximumSize(unknownIdMaximumSize)
+            .build();
+        this.trustCatalogForUnknownIds = trustCatalogForUnknownIds;
     }
 
     /**
-     * Obtiene productos desde FakeStore API
+     * Obtiene productos desde el catálogo en memoria
      * @param id ID del producto (null o 0 para todos los productos)
      * @return Lista de productos
      */
-    @Cacheable(value = "products", key = "#id == null ? 'all' : #id.toString()")
+    @Cacheable(value = CacheConfig.PRODUCTS_CACHE, sync = true, keyGenerator = ProductCacheKeyGenerator.BEAN_NAME)
     public List<ProductDTO> getProductDetails(Integer id) {
+        return loadProductDetails(id);
+    }
+
+    /**
+     * Obtiene productos por categoría.
+     * Se resuelve con el índice por categoría del snapshot, construido una sola vez por descarga.
+     * @param category Categoría de productos
+     * @return Lista de productos de la categoría
+     */
+    @Cacheable(value = CacheConfig.PRODUCTS_BY_CATEGORY_CACHE, sync = true, keyGenerator = ProductCacheKeyGenerator.BEAN_NAME)
+    public List<ProductDTO> getProductsByCategory(String category) {
+        return loadProductsByCategory(category);
+    }
+
+    /**
+     * Obtiene todas las categorías disponibles
+     * @return Lista de categorías únicas
+     */
+    @Cacheable(value = CacheConfig.CATEGORIES_CACHE, sync = true, keyGenerator = ProductCacheKeyGenerator.BEAN_NAME)
+    public List<String> getAllCategories() {
+        return loadAllCategories();
+    }
+
+    /**
+     * Obtiene una página del catálogo ordenado.
+     * El costo de cualquier página es el mismo que el de la primera: el cursor guarda el
+     * valor de orden y el ID del último producto, y la página siguiente empieza con una
+     * búsqueda binaria sobre los índices ordenados del snapshot.
+     * @param limit Máximo de productos por página
+     * @param sort Criterio de orden (id, price, rating o title; con prefijo "-" para descendente)
+     * @param cursor Cursor devuelto por la página anterior (null para la primera)
+     * @return Página de productos y cursor de la siguiente
+     */
+    public ProductPageResponse getProductsPage(int limit, String sort, String cursor) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + maxPageSize);
+        }
+
+        ProductCursor after = null;
+        boolean descending;
+        ProductSort productSort;
+        if (cursor != null && !cursor.isBlank()) {
+            // El cursor ya incluye el orden con el que se generó la página anterior
+            after = ProductCursor.decode(cursor);
+            productSort = after.getSort();
+            descending = after.isDescending();
+        } else {
+            String sortParam = sort == null || sort.isBlank() ? ProductSort.ID.getParam() : sort.trim();
+            descending = sortParam.startsWith("-");
+            productSort = ProductSort.fromParam(descending ? sortParam.substring(1) : sortParam);
+        }
+
+        CatalogSnapshot snapshot = productCatalog.snapshot();
+        List<ProductDTO> page = snapshot.page(productSort, descending, after, limit + 1);
+        String nextCursor = null;
+        if (page.size() > limit) {
+            page = page.subList(0, limit);
+            nextCursor = ProductCursor.after(productSort, descending, page.get(limit - 1)).encode();
+        }
+        return new ProductPageResponse(page, limit, (descending ? "-" : "") + productSort.getParam(),
+            nextCursor, snapshot.getProducts().size());
+    }
+
+    /**
+     * Obtiene varios productos en una sola llamada.
+     * Los IDs presentes en el catálogo se resuelven en memoria; los faltantes se consultan
+     * a FakeStore en paralelo con hilos virtuales, con un máximo de llamadas simultáneas.
+     * @param ids IDs solicitados
+     * @return Un resultado por ID, en el mismo orden de la petición
+     */
+    public List<ProductLookupResult> getProductsByIds(List<Integer> ids) {
+        if (ids.size() > maxBatchIds) {
+            throw new IllegalArgumentException("No se pueden consultar más de " + maxBatchIds + " productos por petición");
+        }
+
+        CatalogSnapshot snapshot = productCatalog.snapshot();
+        Map<Integer, ProductLookupResult> resolved = new HashMap<>();
+        Set<Integer> missing = new LinkedHashSet<>();
+        for (Integer id : ids) {
+            if (id == null || id <= 0) {
+                throw new IllegalArgumentException("El ID debe ser un número positivo");
+            }
+            if (resolved.containsKey(id) || missing.contains(id)) {
+                continue;
+            }
+            ProductDTO product = snapshot.findById(id);
+            if (product != null) {
+                resolved.put(id, ProductLookupResult.found(id, product));
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            resolved.putAll(fetchMissing(missing));
+        }
+
+        List<ProductLookupResult> results = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            results.add(resolved.get(id));
+        }
+        return results;
+    }
+
+    private Map<Integer, ProductLookupResult> fetchMissing(Set<Integer> missing) {
+        Map<Integer, Future<ProductLookupResult>> futures = new LinkedHashMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Integer id : missing) {
+                futures.put(id, executor.submit(() -> fetchWithPermit(id)));
+            }
+        }
+
+        Map<Integer, ProductLookupResult> fetched = new HashMap<>();
+        futures.forEach((id, future) -> fetched.put(id, resultOf(id, future)));
+        return fetched;
+    }
+
+    private ProductLookupResult fetchWithPermit(int id) throws InterruptedException {
+        batchFetchPermits.acquire();
         try {
+            return ProductLookupResult.found(id, loadProductDetails(id).get(0));
+        } catch (ProductNotFoundException e) {
+            return ProductLookupResult.notFound(id, e.getMessage());
+        } catch (UpstreamUnavailableException e) {
+            return ProductLookupResult.unavailable(id, e.getMessage());
+        } finally {
+            batchFetchPermits.release();
+        }
+    }
+
+    /**
+     * Las fallas que no son "no encontrado" ni "no disponible" por ID no dicen nada del
+     * producto: se propagan como {@link UpstreamUnavailableException} (503) para toda la petición
+     */
+    private ProductLookupResult resultOf(int id, Future<ProductLookupResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UpstreamUnavailableException("Consulta del producto " + id + " interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new UpstreamUnavailableException("Error al consultar el producto " + id + ": "
+                + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Carga productos sin pasar por el caché (usado también por el refresco del caché)
+     * @param id ID del producto (null o 0 para todos los productos)
+     * @return Lista de productos
+     */
+    public List<ProductDTO> loadProductDetails(Integer id) {
+        try {
+            CatalogSnapshot snapshot = productCatalog.snapshot();
+
             // Si el id es nulo o 0, obtenemos todos los productos
             if (id == null || id == 0) {
-                // Obtener todos los productos
-                ResponseEntity<List<ProductDTO>> response = restTemplate.exchange(
-                    PRODUCT_API_URL, // URL de la API externa
-                    HttpMethod.GET,  // Método GET
-                    null,  // Sin cuerpo para GET
-                    new ParameterizedTypeReference<List<ProductDTO>>() {} // Especificar que la respuesta es una lista de ProductDTO
-                );
-
-                List<ProductDTO> products = response.getBody();
-
-                if (products == null || products.isEmpty()) {
-                    throw new ProductNotFoundException("No products found.");
-                }
+                return snapshot.getProducts();
+            }
 
-                return products;  // Retornar todos los productos como lista
-            } else {
-                // Si el id no es nulo ni 0, obtenemos un producto específico
-                String url = PRODUCT_API_URL + "/" + id;
-                ResponseEntity<ProductDTO> response = restTemplate.exchange(
-                    url,  // URL con el id específico
-                    HttpMethod.GET,  // Método GET
-                    null,  // Sin cuerpo para GET
-                    ProductDTO.class // Especificamos que esperamos una respuesta de tipo ProductDTO
-                );
-
-                ProductDTO product = response.getBody();
-
-                if (product == null) {
+            ProductDTO product = snapshot.findById(id);
+            if (product == null) {
+                if (isKnownMissing(id)) {
+                    rejectedUnknownIds.increment();
                     throw new ProductNotFoundException("Product not found with ID: " + id);
                 }
+                // Producto publicado después del último refresco: se consulta a la API
+                // compartiendo una sola llamada entre peticiones concurrentes del mismo ID
+                product = productLookups.execute(id, () -> fakeStoreClient.fetchProduct(id));
+            }
 
-                return List.of(product);  // Si solo hay un producto, lo retornamos como una lista
+            if (product == null) {
+                unknownIds.put(id, Boolean.TRUE);
+                throw new ProductNotFoundException("Product not found with ID: " + id);
             }
+
+            return List.of(product);  // Si solo hay un producto, lo retornamos como una lista
+        } catch (UpstreamUnavailableException | ProductNotFoundException e) {
+            throw e;
+        } catch (HttpClientErrorException.NotFound e) {
+            unknownIds.put(id, Boolean.TRUE);
+            throw new ProductNotFoundException("Product not found with ID: " + id);
         } catch (Exception e) {
             throw new ProductNotFoundException("Error fetching products: " + e.getMessage());
         }
     }
 
     /**
-     * Obtiene productos por categoría
+     * Indica si el ID se puede rechazar sin consultar a FakeStore: ya se confirmó que no
+     * existe hace menos de {@code product.negative-cache.ttl}, o el catálogo está vigente y
+     * se configuró {@code product.negative-cache.trust-catalog} para confiar en él
+     */
+    private boolean isKnownMissing(int id) {
+        if (unknownIds.getIfPresent(id) != null) {
+            return true;
+        }
+        return trustCatalogForUnknownIds && !productCatalog.isStale();
+    }
+
+    /**
+     * Carga productos por categoría sin pasar por el caché
      * @param category Categoría de productos
      * @return Lista de productos de la categoría
      */
-    @Cacheable(value = "productsByCategory", key = "#category")
-    public List<ProductDTO> getProductsByCategory(String category) {
+    public List<ProductDTO> loadProductsByCategory(String category) {
         try {
-            List<ProductDTO> allProducts = getProductDetails(null);
-            return allProducts.stream()
-                .filter(product -> category.equalsIgnoreCase(product.getCategory()))
-                .collect(Collectors.toList());
+            return productCatalog.snapshot().findByCategory(category);
+        } catch (UpstreamUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             throw new ProductNotFoundException("Error fetching products by category: " + e.getMessage());
         }
     }
 
     /**
-     * Obtiene todas las categorías disponibles
+     * Carga las categorías sin pasar por el caché
      * @return Lista de categorías únicas
      */
-    @Cacheable(value = "categories")
-    public List<String> getAllCategories() {
+    public List<String> loadAllCategories() {
         try {
-            List<ProductDTO> allProducts = getProductDetails(null);
-            return allProducts.stream()
-                .map(ProductDTO::getCategory)
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+            return productCatalog.snapshot().getCategories();
+        } catch (UpstreamUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             throw new ProductNotFoundException("Error fetching categories: " + e.getMessage());
         }
     }
 
     /**
-     * Limpia el caché de productos
+     * ETag de la respuesta de {@link #getProductDetails(Integer)}, derivado de la huella del snapshot
+     * @param id ID del producto (null o 0 para todos los productos)
+     * @return ETag o null si el producto no está en el catálogo en memoria
      */
-    @CacheEvict(value = {"products", "productsByCategory", "categories"}, allEntries = true)
-    public void clearCache() {
-        // Método para limpiar caché si es necesario
+    public String getProductsETag(Integer id) {
+        CatalogSnapshot snapshot = productCatalog.snapshot();
+        return id == null || id == 0 ? snapshot.getETag() : snapshot.getProductETag(id);
+    }
+
+    /**
+     * @return ETag de los productos de la categoría o null si no existe en el catálogo
+     */
+    public String getProductsByCategoryETag(String category) {
+        return productCatalog.snapshot().getCategoryETag(category);
+    }
+
+    /**
+     * @return ETag de la lista de categorías
+     */
+    public String getCategoriesETag() {
+        return productCatalog.snapshot().getETag();
+    }
+
+    /**
+     * Obtiene las estadísticas de los cachés y de las llamadas hacia FakeStore
+     * @return Estadísticas por caché y por tipo de carga
+     */
+    public Map<String, Object> getCacheStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        Map<String, Object> caches = new LinkedHashMap<>();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(cacheName) instanceof CaffeineCache caffeineCache) {
+                caches.put(cacheName, describe(caffeineCache));
+            }
+        }
+        statistics.put("caches", caches);
+        statistics.put("encodedResponses", responseCache.getStats());
+        statistics.put("catalogLoads", productCatalog.getCatalogLoads().getStats());
+        statistics.put("catalogSync", productCatalog.getSyncStats());
+        statistics.put("productLookups", productLookups.getStats());
+        Map<String, Object> negativeCache = new LinkedHashMap<>();
+        negativeCache.put("size", unknownIds.estimatedSize());
+        negativeCache.put("rejectedLocally", rejectedUnknownIds.sum());
+        negativeCache.put("trustCatalog", trustCatalogForUnknownIds);
+        statistics.put("unknownIds", negativeCache);
+        statistics.put("upstreamRequests", fakeStoreClient.getStats());
+        return statistics;
+    }
+
+    private Map<String, Object> describe(CaffeineCache cache) {
+        CacheStats stats = cache.getNativeCache().stats();
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("size", cache.getNativeCache().estimatedSize());
+        description.put("hitCount", stats.hitCount());
+        description.put("missCount", stats.missCount());
+        description.put("hitRatio", stats.hitRate());
+        description.put("evictionCount", stats.evictionCount());
+        description.put("loadCount", stats.loadCount());
+        description.put("loadFailureCount", stats.loadFailureCount());
+        description.put("averageLoadTimeMs", stats.averageLoadPenalty() / 1_000_000.0);
+        return description;
+    }
+
+    /**
+     * Descarta las vistas cacheadas del snapshot anterior cuando se publica uno nuevo.
+     * Si el cambio es parcial solo se descartan las vistas de los productos y categorías
+     * cambiados; las demás siguen siendo válidas para el nuevo snapshot.
+     */
+    @EventListener
+    public void onCatalogRefreshed(CatalogRefreshedEvent event) {
+        org.springframework.cache.Cache products = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        org.springframework.cache.Cache byCategory = cacheManager.getCache(CacheConfig.PRODUCTS_BY_CATEGORY_CACHE);
+        org.springframework.cache.Cache categories = cacheManager.getCache(CacheConfig.CATEGORIES_CACHE);
+        if (!event.isPartial()) {
+            clear(products);
+            clear(byCategory);
+            clear(categories);
+            return;
+        }
+
+        if (products != null) {
+            products.evict(ProductCacheKeyGenerator.ALL_KEY);
+            event.getChangedProductIds().forEach(products::evict);
+        }
+        // Las claves por categoría son el texto recibido en la petición, con cualquier combinación de mayúsculas
+        if (byCategory instanceof CaffeineCache caffeineCache) {
+            caffeineCache.getNativeCache().asMap().keySet().removeIf(key -> key instanceof String category
+                && event.getChangedCategories().contains(category.toLowerCase(Locale.ROOT)));
+        } else {
+            clear(byCategory);
+        }
+        if (event.categoriesChanged()) {
+            clear(categories);
+        }
+        event.getChangedProductIds().forEach(unknownIds::invalidate);
     }
-}
- 
 
+    private static void clear(org.springframework.cache.Cache cache) {
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Vuelve a consultar un producto en FakeStore y actualiza solo sus vistas cacheadas
+     * @return versiones del catálogo antes y después
+     */
+    public Map<String, Object> invalidateProduct(int id) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("El ID debe ser un número positivo");
+        }
+        CatalogSnapshot previous = productCatalog.snapshot();
+        unknownIds.invalidate(id);
+        return describeRefresh("product:" + id, previous, productCatalog.refreshProduct(id));
+    }
 
+    /**
+     * Vuelve a consultar una categoría en FakeStore y actualiza solo sus vistas cacheadas
+     * @return versiones del catálogo antes y después
+     */
+    public Map<String, Object> invalidateCategory(String category) {
+        if (category == null || category.isBlank()) {
+            throw new IllegalArgumentException("La categoría es obligatoria");
+        }
+        CatalogSnapshot previous = productCatalog.snapshot();
+        return describeRefresh("category:" + category, previous, productCatalog.refreshCategory(category.trim()));
+    }
+
+    /**
+     * Descarga el catálogo completo sin vaciar los cachés: se sigue sirviendo el snapshot
+     * vigente hasta que el nuevo está listo, y las vistas se reemplazan solo si cambió
+     * @return versiones del catálogo antes y después
+     */
+    public Map<String, Object> refreshInPlace() {
+        CatalogSnapshot previous = productCatalog.currentSnapshot();
+        return describeRefresh("catalog", previous, productCatalog.refresh());
+    }
+
+    private Map<String, Object> describeRefresh(String scope, CatalogSnapshot previous, CatalogSnapshot current) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("scope", scope);
+        result.put("previousVersion", previous.getVersion());
+        result.put("version", current.getVersion());
+        result.put("changed", previous.getVersion() != current.getVersion());
+        result.put("totalProducts", current.getProducts().size());
+        result.put("sync", productCatalog.getSyncStats().get("last"));
+        return result;
+    }
+
+    /**
+     * Limpia el caché de productos y vuelve a descargar el catálogo
+     */
+    @CacheEvict(value = {CacheConfig.PRODUCTS_CACHE, CacheConfig.PRODUCTS_BY_CATEGORY_CACHE, CacheConfig.CATEGORIES_CACHE}, allEntries = true)
+    public void clearCache() {
+        productCatalog.refresh();
+    }
+}
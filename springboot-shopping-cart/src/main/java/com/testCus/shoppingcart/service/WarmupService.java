@@ -0,0 +1,280 @@
+/*
+ * Calentamiento de la aplicación antes de aceptar tráfico
+ */
+package com.testCus.shoppingcart.service;
+
+import com.testCus.shoppingcart.dto.PaymentDTO;
+import com.testCus.shoppingcart.dto.ProductDTO;
+import com.testCus.shoppingcart.model.OrderDetail;
+import com.testCus.shoppingcart.util.LogUtil;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Al arrancar, antes de marcar la aplicación como lista para recibir tráfico:
+ * carga el catálogo y sus vistas derivadas (cachés, índices de búsqueda y paginación),
+ * ejecuta los caminos de órdenes y pagos dentro de una transacción que se revierte,
+ * y repite peticiones HTTP reales contra el propio servidor para inicializar el mapeo
+ * de Spring MVC, la validación y la serialización JSON. Así Hibernate, el pool de
+ * conexiones y el JIT ya están inicializados cuando llegan las primeras peticiones reales.
+ * <p>
+ * Las peticiones HTTP de órdenes y pagos no guardan nada: ambas envían un cliente con ID
+ * negativo y sin email, por lo que la validación las rechaza antes de llegar al servicio.
+ */
+@Service
+public class WarmupService {
+
+    private static final Logger logger = LogUtil.getLogger(WarmupService.class);
+    private static final String OPERATION_WARMUP = "WARMUP";
+    // Ningún cliente real tiene este ID y la validación lo rechaza en las peticiones HTTP
+    private static final int WARMUP_CUSTOMER_ID = -1;
+
+    public enum Status { PENDING, RUNNING, COMPLETED, FAILED, DISABLED }
+
+    private final ProductService productService;
+    private final ProductSearchService productSearchService;
+    private final OrderService orderService;
+    private final PaymentService paymentService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final int iterations;
+
+    private volatile Status status = Status.PENDING;
+    private volatile Instant startedAt;
+    private volatile Duration duration;
+    private final Map<String, Object> steps = new LinkedHashMap<>();
+
+    @Autowired
+    public WarmupService(ProductService productService, ProductSearchService productSearchService,
+                         OrderService orderService, PaymentService paymentService,
+                         PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                         @Value("${warmup.enabled:true}") boolean enabled,
+                         @Value("${warmup.iterations:20}") int iterations) {
+        this.productService = productService;
+        this.productSearchService = productSearchService;
+        this.orderService = orderService;
+        this.paymentService = paymentService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.iterations = iterations;
+    }
+
+    /**
+     * Se ejecuta de forma síncrona en ApplicationReadyEvent: Spring Boot publica
+     * ACCEPTING_TRAFFIC solo después de que terminan estos listeners
+     */
+    @EventListener
+    public void warmUp(ApplicationReadyEvent event) {
+        if (!enabled) {
+            status = Status.DISABLED;
+            return;
+        }
+        String transactionId = "WRM-" + System.currentTimeMillis();
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        status = Status.RUNNING;
+        startedAt = Instant.now();
+        long startTime = System.currentTimeMillis();
+        LogUtil.logInfo(logger, OPERATION_WARMUP, transactionId, "Iniciando calentamiento con " + iterations + " iteraciones");
+
+        boolean catalogOk = runStep("catalog", transactionId, this::warmCatalog);
+        boolean ordersOk = runStep("ordersAndPayments", transactionId, this::warmOrdersAndPayments);
+        boolean httpOk = true;
+        if (event.getApplicationContext() instanceof WebServerApplicationContext webContext
+                && webContext.getWebServer() != null) {
+            String baseUrl = "http://localhost:" + webContext.getWebServer().getPort()
+                + webContext.getEnvironment().getProperty("server.servlet.context-path", "");
+            httpOk = runStep("http", transactionId, () -> warmHttp(baseUrl));
+        }
+
+        duration = Duration.ofMillis(System.currentTimeMillis() - startTime);
+        status = catalogOk && ordersOk && httpOk ? Status.COMPLETED : Status.FAILED;
+        LogUtil.logExecutionTime(logger, OPERATION_WARMUP, transactionId, startTime, System.currentTimeMillis());
+        LogUtil.logInfo(logger, OPERATION_WARMUP, transactionId,
+            String.format("Calentamiento %s en %d ms", status, duration.toMillis()));
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.ACCEPTING_TRAFFIC);
+    }
+
+    /**
+     * @return estado, duración y resultado de cada paso del calentamiento
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("status", status);
+        stats.put("startedAt", startedAt != null ? startedAt.toString() : null);
+        stats.put("durationMs", duration != null ? duration.toMillis() : null);
+        stats.put("iterations", iterations);
+        synchronized (steps) {
+            stats.put("steps", new LinkedHashMap<>(steps));
+        }
+        return stats;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    private boolean runStep(String name, String transactionId, Runnable step) {
+        long startTime = System.currentTimeMillis();
+        try {
+            step.run();
+            recordStep(name, "OK (" + (System.currentTimeMillis() - startTime) + " ms)");
+            return true;
+        } catch (Exception e) {
+            // Una falla no impide arrancar: las peticiones reales cargarán lo que falte
+            recordStep(name, "FAILED: " + e.getMessage());
+            LogUtil.logWarning(logger, OPERATION_WARMUP, transactionId,
+                "Falló el paso de calentamiento " + name + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void recordStep(String name, String result) {
+        synchronized (steps) {
+            steps.put(name, result);
+        }
+    }
+
+    /**
+     * Llena los cachés de productos, categorías, productos por categoría, el índice de
+     * búsqueda y los índices de paginación, y ejercita los caminos de lectura
+     */
+    private void warmCatalog() {
+        List<ProductDTO> products = productService.getProductDetails(null);
+        List<String> categories = productService.getAllCategories();
+        for (String category : categories) {
+            productService.getProductsByCategory(category);
+        }
+        int sampleId = products.get(0).getId();
+        for (int i = 0; i < iterations; i++) {
+            productService.getProductDetails(sampleId);
+            productService.getProductsETag(null);
+            productService.getProductsPage(20, "-price", null);
+            productSearchService.search(products.get(0).getTitle(), null, null, null, null, 20);
+        }
+    }
+
+    /**
+     * Crea una orden de prueba y repite su consulta, pago y actualización dentro de una
+     * sola transacción que se revierte. Se inserta una sola vez porque los IDs tomados
+     * de la secuencia no se devuelven con el rollback.
+     */
+    private void warmOrdersAndPayments() {
+        transactionTemplate.executeWithoutResult(tx -> {
+            String transactionId = "WRM-ORD-" + System.currentTimeMillis();
+            OrderDetail order = new OrderDetail();
+            order.setCustomer(warmupCustomer());
+            order.setProductCount(1);
+            order.setProductSummary("Orden de calentamiento");
+            order.setTotal(1.0);
+            order.setStatus("Pending");
+            orderService.saveOrder(order, transactionId);
+
+            for (int i = 0; i < iterations; i++) {
+                orderService.countOrdersByStatus("Pending", transactionId);
+                orderService.getOrdersPage("Pending", 0, 1, transactionId);
+                OrderDetail pending = orderService.findPendingOrder(WARMUP_CUSTOMER_ID)
+                    .orElseThrow(() -> new IllegalStateException("No se encontró la orden de calentamiento"));
+
+                PaymentDTO payment = new PaymentDTO();
+                payment.setCustomerId(WARMUP_CUSTOMER_ID);
+                payment.setAmount(pending.getTotal());
+                paymentService.processPayment(payment);
+                orderService.updateOrder(pending, transactionId);
+            }
+
+            tx.setRollbackOnly();
+        });
+    }
+
+    /**
+     * Repite las peticiones de productos, órdenes y pagos a través del servidor: mapeo de
+     * rutas, conversión de parámetros, {@code @Valid}, manejadores de errores y Jackson.
+     * Cualquier 5xx se considera una falla del paso.
+     */
+    private void warmHttp(String baseUrl) {
+        RestTemplate restTemplate = new RestTemplate();
+        // Las respuestas 4xx son esperadas (órdenes y pagos inválidos)
+        restTemplate.setErrorHandler(new DefaultResponseErrorHandler() {
+            @Override
+            public boolean hasError(ClientHttpResponse response) throws IOException {
+                return response.getStatusCode().is5xxServerError();
+            }
+        });
+
+        List<ProductDTO> products = productService.getProductDetails(null);
+        ProductDTO sample = products.get(0);
+        String category = sample.getCategory();
+        Map<String, Object> product = Map.of("id", sample.getId(), "title", "Warmup", "price", 1.0,
+            "category", "warmup");
+        Map<String, Object> address = Map.of("street", "Warmup", "city", "Warmup", "zipCode", "00000");
+        // ID negativo y sin email: el lote la reporta como inválida y el pago responde 400;
+        // ninguna de las dos guarda ni completa órdenes
+        Map<String, Object> invalidOrder = Map.of(
+            "customer", Map.of("customerId", WARMUP_CUSTOMER_ID, "firstName", "Warmup", "lastName", "Warmup",
+                "phone", "00000000", "address", address),
+            "products", List.of(product));
+
+        HttpHeaders gzip = new HttpHeaders();
+        gzip.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        HttpHeaders ndjson = new HttpHeaders();
+        ndjson.setAccept(List.of(MediaType.APPLICATION_NDJSON));
+
+        for (int i = 0; i < iterations; i++) {
+            restTemplate.getForEntity(baseUrl + "/api/products", byte[].class);
+            restTemplate.exchange(baseUrl + "/api/products", HttpMethod.GET, new HttpEntity<>(gzip), byte[].class);
+            restTemplate.getForEntity(baseUrl + "/api/products/{id}", byte[].class, sample.getId());
+            restTemplate.getForEntity(baseUrl + "/api/products?ids={ids}", byte[].class, sample.getId() + "," + sample.getId());
+            restTemplate.getForEntity(baseUrl + "/api/products?limit=20&sort=-price", byte[].class);
+            restTemplate.getForEntity(baseUrl + "/api/products/categories", byte[].class);
+            restTemplate.getForEntity(baseUrl + "/api/products/category/{category}", byte[].class, category);
+            restTemplate.getForEntity(baseUrl + "/api/products/search?q={q}&limit=20", byte[].class, sample.getTitle());
+            restTemplate.getForEntity(baseUrl + "/api/orders/status/Pending", byte[].class);
+            restTemplate.getForEntity(baseUrl + "/api/orders/status/Pending?limit=20", byte[].class);
+            restTemplate.exchange(baseUrl + "/api/orders/status/Pending?limit=20", HttpMethod.GET, new HttpEntity<>(ndjson), byte[].class);
+            restTemplate.getForEntity(baseUrl + "/api/orders/stats", byte[].class);
+            restTemplate.postForEntity(baseUrl + "/api/orders/batch", List.of(invalidOrder), byte[].class);
+            restTemplate.postForEntity(baseUrl + "/api/payments", invalidOrder, byte[].class);
+        }
+    }
+
+    private static OrderDetail.Customer warmupCustomer() {
+        OrderDetail.Customer.Address address = new OrderDetail.Customer.Address();
+        address.setStreet("Warmup");
+        address.setCity("Warmup");
+        address.setZipCode("00000");
+        OrderDetail.Customer customer = new OrderDetail.Customer();
+        customer.setCustomerId(WARMUP_CUSTOMER_ID);
+        customer.setFirstName("Warmup");
+        customer.setLastName("Warmup");
+        customer.setEmail("warmup@localhost");
+        customer.setPhone("00000000");
+        customer.setAddress(address);
+        return customer;
+    }
+}
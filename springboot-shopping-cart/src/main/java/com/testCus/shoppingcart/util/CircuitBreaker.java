@@ -0,0 +1,124 @@
+/*
+ * Circuit breaker para llamadas hacia servicios externos
+ */
+package com.testCus.shoppingcart.util;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Circuit breaker por fallas consecutivas.
+ * CLOSED deja pasar todas las llamadas; tras {@code failureThreshold} fallas seguidas pasa a OPEN
+ * y rechaza de inmediato durante {@code openDuration}; luego pasa a HALF_OPEN y deja pasar
+ * {@code halfOpenMaxCalls} llamadas de prueba que deciden si vuelve a CLOSED u OPEN.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final int halfOpenMaxCalls;
+    private final BiConsumer<State, State> transitionListener;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private int halfOpenCalls;
+    private Instant openedAt = Instant.EPOCH;
+    private Instant lastTransitionAt = Instant.now();
+
+    private final LongAdder rejectedCalls = new LongAdder();
+    private final LongAdder failedCalls = new LongAdder();
+    private final LongAdder successfulCalls = new LongAdder();
+    private final LongAdder trips = new LongAdder();
+
+    /**
+     * @param transitionListener Se invoca con (estado anterior, estado nuevo) en cada cambio
+     */
+    public CircuitBreaker(int failureThreshold, Duration openDuration, int halfOpenMaxCalls,
+                          BiConsumer<State, State> transitionListener) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.halfOpenMaxCalls = halfOpenMaxCalls;
+        this.transitionListener = transitionListener;
+    }
+
+    /**
+     * Solicita permiso para realizar una llamada
+     * @return false si el circuito está abierto y la llamada debe rechazarse
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (Instant.now().isBefore(openedAt.plus(openDuration))) {
+                rejectedCalls.increment();
+                return false;
+            }
+            moveTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenCalls >= halfOpenMaxCalls) {
+                rejectedCalls.increment();
+                return false;
+            }
+            halfOpenCalls++;
+        }
+        return true;
+    }
+
+    /**
+     * Registra una llamada exitosa
+     */
+    public synchronized void onSuccess() {
+        successfulCalls.increment();
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            moveTo(State.CLOSED);
+        }
+    }
+
+    /**
+     * Registra una llamada fallida
+     */
+    public synchronized void onFailure() {
+        failedCalls.increment();
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            openedAt = Instant.now();
+            trips.increment();
+            moveTo(State.OPEN);
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return contadores y estado actual en formato apto para serializar
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state);
+        stats.put("lastTransitionAt", lastTransitionAt.toString());
+        stats.put("consecutiveFailures", consecutiveFailures);
+        stats.put("trips", trips.sum());
+        stats.put("successfulCalls", successfulCalls.sum());
+        stats.put("failedCalls", failedCalls.sum());
+        stats.put("rejectedCalls", rejectedCalls.sum());
+        return stats;
+    }
+
+    private void moveTo(State next) {
+        State previous = state;
+        state = next;
+        halfOpenCalls = 0;
+        lastTransitionAt = Instant.now();
+        if (transitionListener != null) {
+            transitionListener.accept(previous, next);
+        }
+    }
+}
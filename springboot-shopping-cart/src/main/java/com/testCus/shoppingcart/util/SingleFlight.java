@@ -0,0 +1,98 @@
+/*
+ * Coalescencia de llamadas concurrentes por clave
+ */
+package com.testCus.shoppingcart.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Garantiza que, para una misma clave, solo haya una carga en vuelo.
+ * Los llamadores concurrentes esperan y comparten el resultado (o el error)
+ * de la primera llamada en lugar de repetirla.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Ejecuta el loader para la clave o se une a la ejecución en curso
+     * @param key Clave de la carga
+     * @param loader Función que realiza la carga real
+     * @return Resultado compartido de la carga
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        executions.increment();
+        try {
+            V value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return número de cargas reales ejecutadas
+     */
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    /**
+     * @return número de llamadores que reutilizaron una carga en vuelo
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * @return número de claves con una carga actualmente en vuelo
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * @return contadores en formato apto para serializar
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("executions", getExecutions());
+        stats.put("coalesced", getCoalesced());
+        stats.put("inFlight", getInFlight());
+        return stats;
+    }
+}
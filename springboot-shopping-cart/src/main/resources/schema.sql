@@ -0,0 +1,42 @@
+-- Esquema de la base de datos. Hibernate solo lo valida (spring.jpa.hibernate.ddl-auto=validate);
+-- cualquier cambio en las entidades debe reflejarse aquí.
+
+-- IDs de órdenes: Hibernate reserva bloques de INCREMENT BY valores por llamada (OrderIdGenerator).
+-- INCREMENT BY debe ser igual a orders.id.allocation-size.
+CREATE SEQUENCE IF NOT EXISTS order_details_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS order_details (
+    order_id        INTEGER NOT NULL,
+    customer_id     INTEGER,
+    first_name      VARCHAR(255),
+    last_name       VARCHAR(255),
+    email           VARCHAR(255),
+    phone           VARCHAR(255),
+    street          VARCHAR(255),
+    city            VARCHAR(255),
+    zip_code        VARCHAR(255),
+    product_count   INTEGER NOT NULL,
+    product_summary VARCHAR(255),
+    total           FLOAT(53) NOT NULL,
+    status          VARCHAR(255),
+    payment_method  VARCHAR(255),
+    PRIMARY KEY (order_id)
+);
+
+-- Orden pendiente de un cliente: cada pago y cada alta de orden
+CREATE INDEX IF NOT EXISTS idx_order_details_customer_status ON order_details (customer_id, status);
+
+-- Conteo, paginado por keyset y recorrido por estado (ORDER BY status, order_id)
+CREATE INDEX IF NOT EXISTS idx_order_details_status_order ON order_details (status, order_id);
+
+CREATE TABLE IF NOT EXISTS products (
+    id          INTEGER GENERATED BY DEFAULT AS IDENTITY,
+    title       VARCHAR(255),
+    price       FLOAT(53) NOT NULL,
+    description VARCHAR(255),
+    category    VARCHAR(255),
+    image       VARCHAR(255),
+    rate        FLOAT(53),
+    count       INTEGER,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,56 @@
+/*
+ * Pruebas del índice invertido de búsqueda
+ */
+package com.testCus.shoppingcart.catalog;
+
+import com.testCus.shoppingcart.dto.ProductDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Con un término único por producto el índice tiene tantos términos como productos; las
+ * listas dispersas lo mantienen lineal (con un BitSet denso por término serían ~1,25 GB
+ * para 100.000 productos).
+ */
+class ProductSearchIndexTest {
+
+    private static final int PRODUCTS = 100_000;
+
+    @Test
+    void largeCatalogWithUniqueTermsPerProductMatchesExactly() {
+        ProductSearchIndex index = ProductSearchIndex.build(CatalogSnapshot.of(1, 1L, catalog()), null);
+
+        assertEquals(PRODUCTS, index.size());
+        assertTrue(index.termCount() >= PRODUCTS);
+
+        BitSet single = index.match(List.of("sku042424")).getDocuments();
+        assertEquals(1, single.cardinality());
+        assertEquals(42424, index.product(single.nextSetBit(0)).getId());
+
+        // "algodon" solo está en la descripción de los productos pares
+        ProductSearchIndex.Match both = index.match(List.of("algodon", "sku000010"));
+        assertEquals(1, both.getDocuments().cardinality());
+        int doc = both.getDocuments().nextSetBit(0);
+        assertEquals(10, index.product(doc).getId());
+        assertEquals(3, both.score(doc));
+
+        assertTrue(index.match(List.of("algodon", "sku000011")).getDocuments().isEmpty());
+        assertEquals(PRODUCTS / 2, index.match(List.of("algodon")).getDocuments().cardinality());
+    }
+
+    private static List<ProductDTO> catalog() {
+        List<ProductDTO> products = new ArrayList<>(PRODUCTS);
+        for (int id = 0; id < PRODUCTS; id++) {
+            String description = id % 2 == 0 ? "Camiseta de algodón" : "Camiseta de poliéster";
+            products.add(new ProductDTO(id, String.format("Producto sku%06d", id), 10.0 + id % 100,
+                description, "clothing", null, null));
+        }
+        return products;
+    }
+}
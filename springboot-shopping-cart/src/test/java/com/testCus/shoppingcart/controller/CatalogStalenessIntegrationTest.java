@@ -0,0 +1,80 @@
+/*
+ * Pruebas de integración del modo degradado del catálogo
+ */
+package com.testCus.shoppingcart.controller;
+
+import com.testCus.shoppingcart.catalog.ProductCatalog;
+import com.testCus.shoppingcart.fakestore.FakeStoreStandInProperties;
+import com.testCus.shoppingcart.interceptor.CatalogStalenessInterceptor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * FakeStore es el sustituto local; cada prueba usa un contexto nuevo porque deja el
+ * circuit breaker abierto.
+ */
+@SpringBootTest(properties = {
+    "product.api.circuit-breaker.failure-threshold=2",
+    "product.api.circuit-breaker.open-duration=1m"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class CatalogStalenessIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductCatalog productCatalog;
+
+    @Autowired
+    private FakeStoreStandInProperties standInProperties;
+
+    @Test
+    void upstreamDownWithoutSnapshotIs503() throws Exception {
+        standInProperties.setErrorRate(1.0);
+
+        mockMvc.perform(get("/api/products"))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(jsonPath("$.error").value("UPSTREAM_UNAVAILABLE"));
+        mockMvc.perform(get("/api/products/1"))
+            .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void upstreamDownServesLastCatalogMarkedStale() throws Exception {
+        mockMvc.perform(get("/api/products"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(standInProperties.getProducts()))
+            .andExpect(header().doesNotExist(CatalogStalenessInterceptor.STALE_HEADER));
+
+        // Los refrescos fallidos abren el circuito; el snapshot vigente se conserva
+        standInProperties.setErrorRate(1.0);
+        productCatalog.scheduledRefresh();
+        productCatalog.scheduledRefresh();
+
+        mockMvc.perform(get("/api/products"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(standInProperties.getProducts()))
+            .andExpect(header().string(CatalogStalenessInterceptor.STALE_HEADER, "true"))
+            .andExpect(header().string(CatalogStalenessInterceptor.AGE_HEADER, matchesPattern("\\d+")))
+            .andExpect(header().string(HttpHeaders.WARNING, "110 - \"Response is Stale\""));
+        mockMvc.perform(get("/api/products/3"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(3))
+            .andExpect(header().string(CatalogStalenessInterceptor.STALE_HEADER, "true"));
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Pruebas de integración de la creación de órdenes en lote
+ */
+package com.testCus.shoppingcart.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testCus.shoppingcart.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * {@code POST /api/orders/batch}: resultado por orden cuando se mezclan órdenes válidas e
+ * inválidas, una sola transacción para las válidas y límites del tamaño del lote.
+ */
+@SpringBootTest(properties = "orders.batch.max-size=3")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrderBatchIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void mixedBatchReportsEachOrderAndSavesOnlyValidOnes() throws Exception {
+        Map<String, Object> withoutEmail = order(12);
+        customerOf(withoutEmail).remove("email");
+
+        postBatch(List.of(order(11), withoutEmail, order(13)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("PARTIAL_SUCCESS"))
+            .andExpect(jsonPath("$.received").value(3))
+            .andExpect(jsonPath("$.created").value(2))
+            .andExpect(jsonPath("$.rejected").value(1))
+            .andExpect(jsonPath("$.results[0].index").value(0))
+            .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+            .andExpect(jsonPath("$.results[0].orderNumber").value(startsWith("ORD-")))
+            .andExpect(jsonPath("$.results[1].index").value(1))
+            .andExpect(jsonPath("$.results[1].status").value("INVALID"))
+            .andExpect(jsonPath("$.results[1].orderId").value(nullValue()))
+            .andExpect(jsonPath("$.results[1].errors").value(hasItem(startsWith("customer.email: "))))
+            .andExpect(jsonPath("$.results[2].index").value(2))
+            .andExpect(jsonPath("$.results[2].status").value("CREATED"));
+
+        assertEquals(List.of(11, 13), orderRepository.findAll().stream()
+            .map(order -> order.getCustomer().getCustomerId()).sorted().toList());
+    }
+
+    @Test
+    void validOrdersAreSavedInOneTransaction() throws Exception {
+        // La base rechaza la tercera orden aunque pasa la validación: las dos primeras se revierten
+        jdbcTemplate.execute("ALTER TABLE order_details ADD CONSTRAINT chk_batch_test CHECK (customer_id <> 23)");
+        try {
+            postBatch(List.of(order(21), order(22), order(23)))
+                .andExpect(status().isInternalServerError());
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE order_details DROP CONSTRAINT chk_batch_test");
+        }
+
+        assertEquals(0, orderRepository.count());
+    }
+
+    @Test
+    void emptyOrOversizedBatchIs400() throws Exception {
+        postBatch(List.of())
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("VALIDATION_ERROR"));
+        postBatch(List.of(order(31), order(32), order(33), order(34)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("VALIDATION_ERROR"));
+
+        assertEquals(0, orderRepository.count());
+    }
+
+    @Test
+    void batchWithOnlyInvalidOrdersIsRejected() throws Exception {
+        postBatch(List.of(order(-1)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("REJECTED"))
+            .andExpect(jsonPath("$.created").value(0))
+            .andExpect(jsonPath("$.results[0].status").value("INVALID"));
+
+        assertEquals(0, orderRepository.count());
+    }
+
+    private ResultActions postBatch(List<Map<String, Object>> orders) throws Exception {
+        return mockMvc.perform(post("/api/orders/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(orders)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> customerOf(Map<String, Object> order) {
+        return (Map<String, Object>) order.get("customer");
+    }
+
+    private static Map<String, Object> order(int customerId) {
+        Map<String, Object> customer = new HashMap<>(Map.of("customerId", customerId, "firstName", "Ana",
+            "lastName", "Pérez", "email", "ana" + customerId + "@example.com", "phone", "5551234567",
+            "address", Map.of("street", "Calle 1", "city", "Lima", "zipCode", "15001")));
+        return Map.of("customer", customer,
+            "products", List.of(Map.of("id", 1, "title", "Producto 1", "price", 10.0, "category", "electronics")));
+    }
+}
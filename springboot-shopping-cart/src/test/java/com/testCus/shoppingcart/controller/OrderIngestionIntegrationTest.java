@@ -0,0 +1,152 @@
+/*
+ * Pruebas de integración de la recepción asíncrona de órdenes
+ */
+package com.testCus.shoppingcart.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testCus.shoppingcart.repository.OrderRepository;
+import com.testCus.shoppingcart.service.OrderIngestionService;
+import com.testCus.shoppingcart.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * {@code POST /api/orders} en modo write-behind: 202 con tracking ID, consulta del estado
+ * y 429 con {@code Retry-After} cuando la cola (de una sola orden) está llena.
+ */
+@SpringBootTest(properties = {
+    "orders.write-behind.enabled=true",
+    "orders.write-behind.queue-capacity=1",
+    "orders.write-behind.batch-size=1",
+    "orders.write-behind.poll-interval=20ms",
+    "orders.write-behind.retry-after=3s"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrderIngestionIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @SpyBean
+    private OrderService orderService;
+
+    @Test
+    void acceptedOrderIsQueuedAndPollableUntilPersisted() throws Exception {
+        MvcResult accepted = mockMvc.perform(post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(order(41))))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.ingestionStatus").value(OrderIngestionService.STATUS_QUEUED))
+            .andReturn();
+        String trackingId = objectMapper.readTree(accepted.getResponse().getContentAsString()).get("trackingId").asText();
+        assertEquals("http://localhost/api/orders/ingestion/" + trackingId,
+            accepted.getResponse().getHeader(HttpHeaders.LOCATION));
+
+        JsonNode state = pollUntilPersisted(trackingId);
+        int orderId = state.get("orderId").asInt();
+        assertTrue(orderRepository.existsById(orderId));
+        assertEquals(41, orderRepository.findById(orderId).orElseThrow().getCustomer().getCustomerId());
+    }
+
+    @Test
+    void fullQueueIs429WithRetryAfter() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return invocation.callRealMethod();
+        }).when(orderService).saveOrders(anyList(), anyString());
+        try {
+            // La primera orden ocupa al escritor y la segunda llena la cola
+            submit(order(51));
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+            String queued = submit(order(52));
+
+            mockMvc.perform(post("/api/orders")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(order(53))))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"))
+                .andExpect(jsonPath("$.error").value("ORDER_QUEUE_FULL"));
+
+            release.countDown();
+            pollUntilPersisted(queued);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void unknownTrackingIdIs404() throws Exception {
+        mockMvc.perform(get("/api/orders/ingestion/ING-desconocido"))
+            .andExpect(status().isNotFound())
+            .andExpect(jsonPath("$.error").value("TRACKING_NOT_FOUND"));
+    }
+
+    private String submit(Map<String, Object> order) throws Exception {
+        String body = mockMvc.perform(post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(order)))
+            .andExpect(status().isAccepted())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("trackingId").asText();
+    }
+
+    private JsonNode pollUntilPersisted(String trackingId) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (true) {
+            String body = mockMvc.perform(get("/api/orders/ingestion/{trackingId}", trackingId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+            JsonNode state = objectMapper.readTree(body);
+            String ingestionStatus = state.get("ingestionStatus").asText();
+            if (OrderIngestionService.STATUS_PERSISTED.equals(ingestionStatus)) {
+                return state;
+            }
+            assertEquals(OrderIngestionService.STATUS_QUEUED, ingestionStatus);
+            assertTrue(System.currentTimeMillis() < deadline, "La orden no se guardó a tiempo");
+            Thread.sleep(20);
+        }
+    }
+
+    private static Map<String, Object> order(int customerId) {
+        return Map.of(
+            "customer", Map.of("customerId", customerId, "firstName", "Ana", "lastName", "Pérez",
+                "email", "ana" + customerId + "@example.com", "phone", "5551234567",
+                "address", Map.of("street", "Calle 1", "city", "Lima", "zipCode", "15001")),
+            "products", List.of(Map.of("id", 1, "title", "Producto 1", "price", 10.0, "category", "electronics")));
+    }
+}
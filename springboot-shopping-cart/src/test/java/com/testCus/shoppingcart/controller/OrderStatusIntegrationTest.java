@@ -0,0 +1,211 @@
+/*
+ * Pruebas de integración de las consultas de órdenes por estado
+ */
+package com.testCus.shoppingcart.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testCus.shoppingcart.model.OrderDetail;
+import com.testCus.shoppingcart.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Paginado por keyset y exportación NDJSON de {@code GET /api/orders/status/{status}}
+ * sobre órdenes Cancelled intercaladas con Pending.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrderStatusIntegrationTest {
+
+    private static final int CANCELLED_ORDERS = 7;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private List<Integer> cancelledIds;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        List<OrderDetail> orders = new ArrayList<>();
+        for (int i = 0; i < CANCELLED_ORDERS; i++) {
+            orders.add(order(100 + i, "Cancelled"));
+            orders.add(order(200 + i, "Pending"));
+        }
+        cancelledIds = orderRepository.saveAll(orders).stream()
+            .filter(order -> "Cancelled".equals(order.getStatus()))
+            .map(OrderDetail::getOrderId)
+            .sorted()
+            .toList();
+    }
+
+    @Test
+    void pagesContinueAfterLastOrderIdUntilCursorIsNull() throws Exception {
+        List<Integer> seen = new ArrayList<>();
+        int afterOrderId = 0;
+        int pages = 0;
+        while (true) {
+            JsonNode page = getJson("/api/orders/status/Cancelled?limit=3&afterOrderId=" + afterOrderId);
+            pages++;
+            for (JsonNode order : page.get("orders")) {
+                assertEquals("Cancelled", order.get("status").asText());
+                seen.add(order.get("orderId").asInt());
+            }
+            if (page.get("nextAfterOrderId").isNull()) {
+                assertTrue(page.get("orders").size() < 3);
+                break;
+            }
+            afterOrderId = page.get("nextAfterOrderId").asInt();
+            assertEquals(seen.get(seen.size() - 1), afterOrderId);
+        }
+
+        assertEquals(cancelledIds, seen);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void fullLastPageIsFollowedByEmptyPageWithoutCursor() throws Exception {
+        // El cursor solo se omite cuando la página no se llena: la última página completa
+        // todavía lo trae y la siguiente llega vacía
+        mockMvc.perform(get("/api/orders/status/Cancelled")
+                .param("limit", String.valueOf(CANCELLED_ORDERS)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.orders.length()").value(CANCELLED_ORDERS))
+            .andExpect(jsonPath("$.nextAfterOrderId").value(cancelledIds.get(CANCELLED_ORDERS - 1)));
+
+        mockMvc.perform(get("/api/orders/status/Cancelled")
+                .param("limit", "5")
+                .param("afterOrderId", String.valueOf(cancelledIds.get(CANCELLED_ORDERS - 1))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.orders.length()").value(0))
+            .andExpect(jsonPath("$.nextAfterOrderId").value(nullValue()));
+    }
+
+    @Test
+    void streamWritesOneOrderPerLine() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/orders/status/Cancelled")
+                .accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString();
+
+        assertTrue(body.endsWith("\n"));
+        String[] lines = body.split("\n");
+        assertEquals(CANCELLED_ORDERS, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            JsonNode order = objectMapper.readTree(lines[i]);
+            assertEquals(cancelledIds.get(i), order.get("orderId").asInt());
+            assertEquals("Cancelled", order.get("status").asText());
+        }
+    }
+
+    @Test
+    void streamResumesAfterOrderId() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/orders/status/Cancelled")
+                .param("afterOrderId", String.valueOf(cancelledIds.get(4)))
+                .accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+
+        List<Integer> ids = body.lines().map(line -> readTree(line).get("orderId").asInt()).toList();
+        assertEquals(cancelledIds.subList(5, CANCELLED_ORDERS), ids);
+    }
+
+    @Test
+    void badLimitIs400() throws Exception {
+        for (String limit : List.of("0", "-1", "101", "abc")) {
+            mockMvc.perform(get("/api/orders/status/Cancelled").param("limit", limit))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("VALIDATION_ERROR"));
+        }
+        mockMvc.perform(get("/api/orders/status/Cancelled").param("limit", "5").param("afterOrderId", "-1"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void statusWithoutOrdersIs404() throws Exception {
+        mockMvc.perform(get("/api/orders/status/Completed"))
+            .andExpect(status().isNotFound())
+            .andExpect(jsonPath("$.error").value("ORDERS_NOT_FOUND"));
+        mockMvc.perform(get("/api/orders/status/Cancelled"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.order.orderId").value(cancelledIds.get(0)));
+    }
+
+    @Test
+    void unsupportedStatusIs400OnEveryMode() throws Exception {
+        mockMvc.perform(get("/api/orders/status/Shipped"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("INVALID_STATUS"));
+        mockMvc.perform(get("/api/orders/status/Shipped").param("limit", "5"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("INVALID_STATUS"));
+        // En modo NDJSON el error también llega como JSON
+        MvcResult started = mockMvc.perform(get("/api/orders/status/Shipped")
+                .accept(MediaType.APPLICATION_NDJSON))
+            .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.error").value("INVALID_STATUS"));
+    }
+
+    private JsonNode getJson(String uri) throws Exception {
+        String body = mockMvc.perform(get(uri))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private JsonNode readTree(String line) {
+        try {
+            return objectMapper.readTree(line);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static OrderDetail order(int customerId, String status) {
+        OrderDetail.Customer.Address address = new OrderDetail.Customer.Address();
+        address.setStreet("Calle 1");
+        address.setCity("Lima");
+        address.setZipCode("15001");
+        OrderDetail.Customer customer = new OrderDetail.Customer(customerId, "Ana", "Pérez",
+            "ana" + customerId + "@example.com", "5551234567", address);
+        return new OrderDetail(0, customer, 1, "Orden con 1 productos", 10.0, status, null);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Pruebas de integración de las respuestas codificadas del catálogo
+ */
+package com.testCus.shoppingcart.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * {@code Vary: Accept-Encoding} aparece una sola vez en las respuestas 200 (JSON plano o
+ * gzip desde la caché codificada) y en los 304.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductResponseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void varyIsSentOnceOnEncodedAndNotModifiedResponses() throws Exception {
+        MockHttpServletResponse plain = mockMvc.perform(get("/api/products"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+            .andReturn().getResponse();
+        assertEquals(1, varyAcceptEncoding(plain));
+
+        MockHttpServletResponse gzip = mockMvc.perform(get("/api/products")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andReturn().getResponse();
+        assertEquals(1, varyAcceptEncoding(gzip));
+
+        MockHttpServletResponse notModified = mockMvc.perform(get("/api/products")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .header(HttpHeaders.IF_NONE_MATCH, gzip.getHeader(HttpHeaders.ETAG)))
+            .andExpect(status().isNotModified())
+            .andReturn().getResponse();
+        assertEquals(1, varyAcceptEncoding(notModified));
+    }
+
+    // CORS agrega sus propios valores a Vary; solo se cuenta Accept-Encoding
+    private static long varyAcceptEncoding(MockHttpServletResponse response) {
+        return response.getHeaders(HttpHeaders.VARY).stream()
+            .flatMap(value -> Arrays.stream(value.split(",")))
+            .filter(value -> value.trim().equalsIgnoreCase(HttpHeaders.ACCEPT_ENCODING))
+            .count();
+    }
+}
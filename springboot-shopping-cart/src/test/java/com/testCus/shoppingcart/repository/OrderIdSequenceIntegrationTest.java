@@ -0,0 +1,93 @@
+/*
+ * Pruebas de integración de los IDs de órdenes tomados de la secuencia
+ */
+package com.testCus.shoppingcart.repository;
+
+import com.testCus.shoppingcart.SpringbootShoppingCart;
+import com.testCus.shoppingcart.model.OrderDetail;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Con el optimizador pooled-lo cada llamada a {@code order_details_seq} reserva un bloque de
+ * {@code orders.id.allocation-size} IDs; un tamaño distinto del INCREMENT BY de
+ * {@code schema.sql} impide arrancar.
+ */
+@SpringBootTest(properties = "orders.id.allocation-size=50")
+@ActiveProfiles("test")
+class OrderIdSequenceIntegrationTest {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void idsComeFromPooledLoBlocksOfTheSequence() {
+        // Contexto propio (propiedades distintas): la secuencia empieza en 1
+        int orders = ALLOCATION_SIZE * 2 + 20;
+        List<OrderDetail> toSave = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            toSave.add(order(i + 1));
+        }
+
+        List<Integer> ids = orderRepository.saveAll(toSave).stream().map(OrderDetail::getOrderId).toList();
+
+        // pooled-lo: el valor de la secuencia es el primer ID del bloque (1, 51, 101)
+        assertEquals(IntStream.rangeClosed(1, orders).boxed().toList(), ids);
+        // Tres llamadas a la secuencia para 120 órdenes; la siguiente devolvería 151
+        assertEquals(3L * ALLOCATION_SIZE + 1, nextSequenceValue());
+    }
+
+    @Test
+    void allocationSizeDifferentFromSequenceIncrementFailsAtStartup() {
+        SpringApplicationBuilder application = new SpringApplicationBuilder(SpringbootShoppingCart.class)
+            .web(WebApplicationType.NONE)
+            .profiles("test");
+
+        // Como argumento de línea de comandos para que tenga prioridad sobre application.properties
+        Exception failure = assertThrows(Exception.class,
+            () -> application.run("--orders.id.allocation-size=20", "--spring.main.banner-mode=off").close());
+
+        assertTrue(rootCause(failure).getMessage().contains("order_details_seq"), rootCause(failure).getMessage());
+    }
+
+    private long nextSequenceValue() {
+        return jdbcTemplate.queryForObject(
+            "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'ORDER_DETAILS_SEQ'", Long.class);
+    }
+
+    private static Throwable rootCause(Throwable failure) {
+        Throwable cause = failure;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static OrderDetail order(int customerId) {
+        OrderDetail.Customer.Address address = new OrderDetail.Customer.Address();
+        address.setStreet("Calle 1");
+        address.setCity("Lima");
+        address.setZipCode("15001");
+        OrderDetail.Customer customer = new OrderDetail.Customer(customerId, "Ana", "Pérez",
+            "ana" + customerId + "@example.com", "5551234567", address);
+        return new OrderDetail(0, customer, 1, "Orden con 1 productos", 10.0, "Pending", null);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Pruebas del cliente de FakeStore contra el sustituto local
+ */
+package com.testCus.shoppingcart.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testCus.shoppingcart.config.HttpClientConfig;
+import com.testCus.shoppingcart.config.ProductApiProperties;
+import com.testCus.shoppingcart.dto.ProductDTO;
+import com.testCus.shoppingcart.exception.UpstreamUnavailableException;
+import com.testCus.shoppingcart.fakestore.FakeStoreStandIn;
+import com.testCus.shoppingcart.fakestore.FakeStoreStandInProperties;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Circuit breaker y fallas simuladas: el sustituto corre en un puerto libre y el cliente
+ * usa el mismo RestTemplate con pool y tiempos de espera que la aplicación.
+ */
+class FakeStoreClientTest {
+
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final Duration OPEN_DURATION = Duration.ofMillis(300);
+    private static final Duration READ_TIMEOUT = Duration.ofMillis(300);
+
+    private FakeStoreStandInProperties standInProperties;
+    private FakeStoreStandIn standIn;
+    private CloseableHttpClient httpClient;
+    private FakeStoreClient fakeStoreClient;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        standInProperties = new FakeStoreStandInProperties();
+        standInProperties.setPort(0);
+        standIn = new FakeStoreStandIn(standInProperties, new ObjectMapper());
+        standIn.start();
+
+        ProductApiProperties properties = new ProductApiProperties();
+        properties.getHttp().setReadTimeout(READ_TIMEOUT);
+        properties.getCircuitBreaker().setFailureThreshold(FAILURE_THRESHOLD);
+        properties.getCircuitBreaker().setOpenDuration(OPEN_DURATION);
+        HttpClientConfig httpClientConfig = new HttpClientConfig();
+        httpClient = httpClientConfig.productHttpClient(properties);
+
+        ObjectProvider<FakeStoreStandIn> standInProvider = mock(ObjectProvider.class);
+        when(standInProvider.getIfAvailable()).thenReturn(standIn);
+        fakeStoreClient = new FakeStoreClient(httpClientConfig.productRestTemplate(properties, httpClient),
+            properties, new ObjectMapper(), standInProvider);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpClient.close();
+        standIn.stop();
+    }
+
+    @Test
+    void breakerOpensAfterConsecutiveFailuresAndClosesAfterHalfOpenProbe() throws Exception {
+        standInProperties.setErrorRate(1.0);
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            assertThrows(UpstreamUnavailableException.class, fakeStoreClient::fetchAllProducts);
+        }
+        assertFalse(fakeStoreClient.isUpstreamHealthy());
+        assertEquals("OPEN", circuitBreakerStats().get("state").toString());
+
+        // Abierto: se rechaza sin llamar al sustituto
+        long requests = upstreamRequests();
+        assertThrows(UpstreamUnavailableException.class, fakeStoreClient::fetchAllProducts);
+        assertEquals(requests, upstreamRequests());
+
+        // Vencida la espera pasa una llamada de prueba; si falla el circuito vuelve a abrirse
+        Thread.sleep(OPEN_DURATION.toMillis() + 50);
+        assertThrows(UpstreamUnavailableException.class, fakeStoreClient::fetchAllProducts);
+        assertEquals(requests + 1, upstreamRequests());
+        assertEquals("OPEN", circuitBreakerStats().get("state").toString());
+
+        // Con FakeStore recuperado la llamada de prueba cierra el circuito
+        standInProperties.setErrorRate(0.0);
+        Thread.sleep(OPEN_DURATION.toMillis() + 50);
+        assertEquals(standInProperties.getProducts(), fakeStoreClient.fetchAllProducts().size());
+        assertTrue(fakeStoreClient.isUpstreamHealthy());
+        assertEquals(2L, circuitBreakerStats().get("trips"));
+    }
+
+    @Test
+    void clientErrorsDoNotCountAsFailures() {
+        standInProperties.setErrorRate(1.0);
+        standInProperties.setErrorStatus(404);
+        for (int i = 0; i < FAILURE_THRESHOLD * 3; i++) {
+            assertThrows(HttpClientErrorException.NotFound.class, () -> fakeStoreClient.fetchProduct(1));
+        }
+
+        assertTrue(fakeStoreClient.isUpstreamHealthy());
+        assertEquals(0L, circuitBreakerStats().get("failedCalls"));
+    }
+
+    @Test
+    void responsesSlowerThanReadTimeoutCountAsFailures() {
+        standInProperties.getLatency().setDistribution(FakeStoreStandInProperties.LatencyDistribution.FIXED);
+        standInProperties.getLatency().setMean(READ_TIMEOUT.multipliedBy(3));
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            assertThrows(UpstreamUnavailableException.class, () -> fakeStoreClient.fetchProduct(1));
+        }
+
+        assertFalse(fakeStoreClient.isUpstreamHealthy());
+    }
+
+    @Test
+    void slowDripResponsesAreReadCompletely() {
+        List<ProductDTO> expected = fakeStoreClient.fetchAllProducts();
+
+        // Cada parte llega antes del tiempo de espera de lectura, aunque el cuerpo completo tarde más
+        standInProperties.getSlowDrip().setRate(1.0);
+        standInProperties.getSlowDrip().setChunkBytes(256);
+        standInProperties.getSlowDrip().setChunkDelay(Duration.ofMillis(20));
+        List<ProductDTO> dripped = fakeStoreClient.fetchAllProducts();
+
+        assertEquals(expected.stream().map(ProductDTO::getId).toList(), dripped.stream().map(ProductDTO::getId).toList());
+        assertEquals(expected.get(expected.size() - 1).getPrice(), dripped.get(dripped.size() - 1).getPrice());
+        assertEquals(1L, standIn.getStats().get("slowDrips"));
+        assertTrue(fakeStoreClient.isUpstreamHealthy());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> circuitBreakerStats() {
+        return (Map<String, Object>) fakeStoreClient.getStats().get("circuitBreaker");
+    }
+
+    private long upstreamRequests() {
+        return (Long) standIn.getStats().get("requests");
+    }
+}
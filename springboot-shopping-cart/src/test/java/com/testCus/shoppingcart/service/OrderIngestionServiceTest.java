@@ -0,0 +1,171 @@
+/*
+ * Pruebas de la recepción asíncrona (write-behind) de órdenes
+ */
+package com.testCus.shoppingcart.service;
+
+import com.testCus.shoppingcart.config.OrderIngestionProperties;
+import com.testCus.shoppingcart.exception.OrderQueueFullException;
+import com.testCus.shoppingcart.model.OrderDetail;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * El escritor se detiene en su primer lote hasta que la prueba lo libera, así las órdenes
+ * siguientes quedan en la cola y se puede observar el rechazo, el vaciado al detener y
+ * el reintento orden por orden.
+ */
+class OrderIngestionServiceTest {
+
+    private static final int QUEUE_CAPACITY = 3;
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(7);
+
+    private final AtomicInteger nextOrderId = new AtomicInteger(1000);
+    private final List<List<Integer>> savedIdsOnEntry = new CopyOnWriteArrayList<>();
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private OrderService orderService;
+    private OrderIngestionService ingestionService;
+
+    @BeforeEach
+    void setUp() {
+        OrderIngestionProperties properties = new OrderIngestionProperties();
+        properties.setEnabled(true);
+        properties.setQueueCapacity(QUEUE_CAPACITY);
+        properties.setBatchSize(QUEUE_CAPACITY);
+        properties.setPollInterval(Duration.ofMillis(20));
+        properties.setRetryAfter(RETRY_AFTER);
+        orderService = mock(OrderService.class);
+        when(orderService.saveOrders(anyList(), anyString())).thenAnswer(invocation -> {
+            List<OrderDetail> orders = invocation.getArgument(0);
+            savedIdsOnEntry.add(orders.stream().map(OrderDetail::getOrderId).toList());
+            if (savedIdsOnEntry.size() == 1) {
+                writing.countDown();
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            }
+            return assignIds(orders);
+        });
+        ingestionService = new OrderIngestionService(properties, orderService, new TransactionIdService());
+        ingestionService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        ingestionService.stop();
+    }
+
+    @Test
+    void fullQueueIsRejectedWithRetryAfter() throws Exception {
+        ingestionService.submit(order());
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < QUEUE_CAPACITY; i++) {
+            ingestionService.submit(order());
+        }
+
+        OrderQueueFullException rejected = assertThrows(OrderQueueFullException.class,
+            () -> ingestionService.submit(order()));
+        assertEquals(RETRY_AFTER, rejected.getRetryAfter());
+        assertEquals(1L, ingestionService.getStats().get("rejected"));
+        assertEquals(QUEUE_CAPACITY, ingestionService.getStats().get("queueDepth"));
+    }
+
+    @Test
+    void stopPersistsEveryQueuedOrderBeforeFinishing() throws Exception {
+        List<String> trackingIds = new ArrayList<>();
+        trackingIds.add(ingestionService.submit(order()));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < QUEUE_CAPACITY; i++) {
+            trackingIds.add(ingestionService.submit(order()));
+        }
+        for (String trackingId : trackingIds) {
+            assertEquals(OrderIngestionService.STATUS_QUEUED, ingestionService.getState(trackingId).orElseThrow().status());
+        }
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        ingestionService.stop(stopped::countDown);
+        // Detenido: no se aceptan órdenes nuevas, pero las encoladas se siguen guardando
+        assertThrows(OrderQueueFullException.class, () -> ingestionService.submit(order()));
+        assertEquals(1, stopped.getCount());
+        release.countDown();
+
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+        assertFalse(ingestionService.isRunning());
+        for (String trackingId : trackingIds) {
+            OrderIngestionService.IngestionState state = ingestionService.getState(trackingId).orElseThrow();
+            assertEquals(OrderIngestionService.STATUS_PERSISTED, state.status());
+            assertNotNull(state.orderId());
+        }
+        assertEquals(0, ingestionService.getStats().get("queueDepth"));
+    }
+
+    @Test
+    void failedBatchIsRetriedOneByOneWithoutAssignedIds() throws Exception {
+        ingestionService.submit(order());
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        // El lote completo falla después de que la secuencia asignó IDs; una orden falla también sola
+        OrderDetail invalid = order();
+        doAnswer(invocation -> {
+            List<OrderDetail> orders = invocation.getArgument(0);
+            savedIdsOnEntry.add(orders.stream().map(OrderDetail::getOrderId).toList());
+            assignIds(orders);
+            if (orders.stream().anyMatch(order -> order == invalid)) {
+                throw new IllegalStateException("Violación de restricción");
+            }
+            return orders;
+        }).when(orderService).saveOrders(anyList(), anyString());
+        String first = ingestionService.submit(order());
+        String failing = ingestionService.submit(invalid);
+        String last = ingestionService.submit(order());
+        release.countDown();
+        ingestionService.stop();
+
+        // Primer lote, lote fallido de 3 y los 3 reintentos individuales, todos sin ID asignado
+        assertEquals(5, savedIdsOnEntry.size());
+        assertEquals(3, savedIdsOnEntry.get(1).size());
+        for (List<Integer> ids : savedIdsOnEntry.subList(1, 5)) {
+            assertTrue(ids.stream().allMatch(id -> id == 0), "IDs al entrar: " + ids);
+        }
+        assertEquals(OrderIngestionService.STATUS_PERSISTED, ingestionService.getState(first).orElseThrow().status());
+        assertEquals(OrderIngestionService.STATUS_FAILED, ingestionService.getState(failing).orElseThrow().status());
+        assertEquals(OrderIngestionService.STATUS_PERSISTED, ingestionService.getState(last).orElseThrow().status());
+        assertEquals(1L, ingestionService.getStats().get("failed"));
+    }
+
+    private List<OrderDetail> assignIds(List<OrderDetail> orders) {
+        for (OrderDetail order : orders) {
+            order.setOrderId(nextOrderId.incrementAndGet());
+        }
+        return orders;
+    }
+
+    private static OrderDetail order() {
+        OrderDetail.Customer.Address address = new OrderDetail.Customer.Address();
+        address.setStreet("Calle 1");
+        address.setCity("Lima");
+        address.setZipCode("15001");
+        OrderDetail.Customer customer = new OrderDetail.Customer(1, "Ana", "Pérez",
+            "ana@example.com", "5551234567", address);
+        return new OrderDetail(0, customer, 1, "Orden con 1 productos", 10.0, "Pending", null);
+    }
+}
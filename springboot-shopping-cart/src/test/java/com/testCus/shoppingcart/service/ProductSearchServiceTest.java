@@ -0,0 +1,70 @@
+/*
+ * Pruebas de la búsqueda de productos con facetas
+ */
+package com.testCus.shoppingcart.service;
+
+import com.testCus.shoppingcart.catalog.CatalogSnapshotStore;
+import com.testCus.shoppingcart.catalog.ProductCatalog;
+import com.testCus.shoppingcart.dto.ProductDTO;
+import com.testCus.shoppingcart.dto.ProductSearchResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchServiceTest {
+
+    private FakeStoreClient fakeStoreClient;
+    private ProductSearchService productSearchService;
+
+    @BeforeEach
+    void setUp() {
+        fakeStoreClient = mock(FakeStoreClient.class);
+        ProductCatalog productCatalog = new ProductCatalog(fakeStoreClient, mock(ApplicationEventPublisher.class),
+            new CatalogSnapshotStore(false, "unused"), Duration.ofMinutes(15));
+        productSearchService = new ProductSearchService(productCatalog, 100);
+    }
+
+    @Test
+    void categoryFilterMatchesEveryCaseVariant() {
+        when(fakeStoreClient.fetchAllProducts()).thenReturn(List.of(
+            product(1, "Cámara digital", "Electronics", 100.0),
+            product(2, "Cámara instantánea", "electronics", 60.0),
+            product(3, "Cámara de juguete", "toys", 15.0)));
+
+        ProductSearchResponse response = productSearchService.search("camara", "ELECTRONICS", null, null, null, 10);
+
+        assertEquals(2, response.getTotalResults());
+        assertEquals(List.of(1, 2), response.getProducts().stream().map(ProductDTO::getId).toList());
+        // La faceta de categoría no aplica su propio filtro
+        assertEquals(Map.of("Electronics", 1, "electronics", 1, "toys", 1), response.getCategoryFacets());
+    }
+
+    @Test
+    void queryWithOnlyStopWordsReturnsNothing() {
+        when(fakeStoreClient.fetchAllProducts()).thenReturn(List.of(
+            product(1, "Cámara digital", "electronics", 100.0),
+            product(2, "The Lord of the Rings", "books", 20.0)));
+
+        for (String query : List.of("the of and", "de la", " ¿? ")) {
+            ProductSearchResponse response = productSearchService.search(query, null, null, null, null, 10);
+            assertEquals(0, response.getTotalResults(), query);
+            assertTrue(response.getProducts().isEmpty(), query);
+            assertTrue(response.getCategoryFacets().isEmpty(), query);
+        }
+        // Sin texto se sigue filtrando todo el catálogo
+        assertEquals(2, productSearchService.search(null, null, null, null, null, 10).getTotalResults());
+    }
+
+    private static ProductDTO product(int id, String title, String category, double price) {
+        return new ProductDTO(id, title, price, "Descripción " + id, category, null, null);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Pruebas de las vistas derivadas del catálogo en ProductService
+ */
+package com.testCus.shoppingcart.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testCus.shoppingcart.catalog.CatalogSnapshotStore;
+import com.testCus.shoppingcart.catalog.ProductCatalog;
+import com.testCus.shoppingcart.dto.ProductDTO;
+import com.testCus.shoppingcart.dto.ProductLookupResult;
+import com.testCus.shoppingcart.exception.UpstreamUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Las consultas por categoría y la lista de categorías se resuelven desde un único
+ * catálogo descargado: N consultas producen exactamente una llamada a FakeStore.
+ * En la consulta de varios IDs cada ID faltante se pide a FakeStore una sola vez.
+ */
+class ProductServiceTest {
+
+    private static final int LOOKUPS = 50;
+    private static final List<ProductDTO> UPSTREAM_PRODUCTS = List.of(
+        product(1, "electronics", 10.0),
+        product(2, "jewelery", 20.0),
+        product(3, "electronics", 30.0),
+        product(4, "men's clothing", 40.0));
+
+    private FakeStoreClient fakeStoreClient;
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        fakeStoreClient = mock(FakeStoreClient.class);
+        ProductCatalog productCatalog = new ProductCatalog(fakeStoreClient, mock(ApplicationEventPublisher.class),
+            new CatalogSnapshotStore(false, "unused"), Duration.ofMinutes(15));
+        ProductResponseCache responseCache = new ProductResponseCache(new ObjectMapper(), productCatalog, false, 10);
+        productService = new ProductService(productCatalog, fakeStoreClient, new ConcurrentMapCacheManager(),
+            responseCache, 100, 8, 100, Duration.ofSeconds(60), 10000, false);
+    }
+
+    @Test
+    void categoryLookupsShareOneUpstreamFetch() {
+        when(fakeStoreClient.fetchAllProducts()).thenReturn(UPSTREAM_PRODUCTS);
+
+        for (int i = 0; i < LOOKUPS; i++) {
+            assertEquals(2, productService.getProductsByCategory("electronics").size());
+            assertEquals(1, productService.getProductsByCategory("jewelery").size());
+            assertTrue(productService.getProductsByCategory("unknown").isEmpty());
+            assertEquals(List.of("electronics", "jewelery", "men's clothing"), productService.getAllCategories());
+        }
+
+        verify(fakeStoreClient, times(1)).fetchAllProducts();
+    }
+
+    @Test
+    void concurrentCategoryLookupsOnColdCatalogShareOneUpstreamFetch() throws Exception {
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFetch = new CountDownLatch(1);
+        when(fakeStoreClient.fetchAllProducts()).thenAnswer(invocation -> {
+            fetchStarted.countDown();
+            assertTrue(releaseFetch.await(5, TimeUnit.SECONDS));
+            return UPSTREAM_PRODUCTS;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < LOOKUPS; i++) {
+                results.add(executor.submit(() -> productService.getProductsByCategory("electronics").size()));
+                results.add(executor.submit(() -> productService.getAllCategories().size()));
+            }
+            assertTrue(fetchStarted.await(5, TimeUnit.SECONDS));
+            releaseFetch.countDown();
+            for (int i = 0; i < results.size(); i++) {
+                // Alternan consulta por categoría (2 productos) y lista de categorías (3)
+                assertEquals(i % 2 == 0 ? 2 : 3, results.get(i).get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(fakeStoreClient, times(1)).fetchAllProducts();
+    }
+
+    @Test
+    void repeatedMissingIdsAreFetchedOnceAndKeepRequestOrder() {
+        when(fakeStoreClient.fetchAllProducts()).thenReturn(UPSTREAM_PRODUCTS);
+        when(fakeStoreClient.fetchProduct(7)).thenReturn(product(7, "electronics", 70.0));
+        when(fakeStoreClient.fetchProduct(8)).thenThrow(new UpstreamUnavailableException("FakeStore no disponible"));
+
+        List<ProductLookupResult> results = productService.getProductsByIds(List.of(7, 1, 8, 7, 1, 8));
+
+        assertEquals(List.of(7, 1, 8, 7, 1, 8), results.stream().map(ProductLookupResult::getId).toList());
+        assertEquals(List.of("FOUND", "FOUND", "UNAVAILABLE", "FOUND", "FOUND", "UNAVAILABLE"),
+            results.stream().map(ProductLookupResult::getStatus).toList());
+        verify(fakeStoreClient, times(1)).fetchProduct(7);
+        verify(fakeStoreClient, times(1)).fetchProduct(8);
+    }
+
+    @Test
+    void unexpectedFetchFailureIsUpstreamUnavailable() {
+        when(fakeStoreClient.fetchAllProducts()).thenReturn(UPSTREAM_PRODUCTS);
+        // Un Error escapa del manejo por ID y llega como ExecutionException
+        when(fakeStoreClient.fetchProduct(9)).thenThrow(new StackOverflowError());
+
+        assertThrows(UpstreamUnavailableException.class, () -> productService.getProductsByIds(List.of(1, 9)));
+    }
+
+    private static ProductDTO product(int id, String category, double price) {
+        return new ProductDTO(id, "Producto " + id, price, "Descripción " + id, category, null, null);
+    }
+}